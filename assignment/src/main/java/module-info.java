@@ -1,5 +1,6 @@
 
 module nl.fontys.sebivenlo.genericranges {
 //    requires java.base;
+    requires jdk.jfr;
     exports nl.fontys.sebivenlo.ranges;
 }
@@ -0,0 +1,186 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Thread safe calendar of bookings that never overlap, without locks.
+ *
+ * <p>
+ * Bookings live in a {@link ConcurrentSkipListMap} keyed by start. A
+ * reservation first inserts its booking as <i>pending</i>, then checks its
+ * neighbours, and only then commits or withdraws. Every reservation checks
+ * after its own insert, so of two overlapping concurrent reservations at least
+ * one sees the other, and at most one of them succeeds. When two overlapping
+ * reservations race, both may fail; a caller that wants the slot anyway can
+ * simply retry. Looking to the left, the check stops at the first committed
+ * booking that ends before the new one starts: anything further left was
+ * already checked against that booking.</p>
+ *
+ * <p>
+ * {@link #isFree isFree} and the other queries are lock free reads. They
+ * count pending reservations as taken.</p>
+ *
+ * @param <R> range type
+ * @param <P> demarcation type of range
+ * @param <D> unit of distance
+ */
+public final class BookingCalendar<R extends Range<R, P, D>, P extends Comparable<? super P>, D extends Comparable<? super D>> {
+
+    private static final int PENDING = 0;
+    private static final int COMMITTED = 1;
+    private static final int FAILED = 2;
+    private static final int RELEASED = 3;
+
+    private final ConcurrentSkipListMap<P, Booking<R>> bookings
+            = new ConcurrentSkipListMap<>();
+
+    /**
+     * Create an empty calendar.
+     */
+    public BookingCalendar() {
+    }
+
+    /**
+     * A range with its life cycle state. Only the reserving thread moves a
+     * booking out of PENDING; release moves it from COMMITTED to RELEASED.
+     */
+    private static final class Booking<R> {
+
+        final R range;
+        final AtomicInteger state = new AtomicInteger( PENDING );
+
+        Booking( R range ) {
+            this.range = range;
+        }
+    }
+
+    /**
+     * Try to book range. Succeeds only if range overlaps no other booking.
+     *
+     * @param range to book
+     * @return true if the booking was made
+     * @throws IllegalArgumentException for an empty range
+     */
+    public boolean tryReserve( R range ) {
+        if ( range.start().compareTo( range.end() ) >= 0 ) {
+            throw new IllegalArgumentException( "cannot reserve empty range "
+                    + range );
+        }
+        Booking<R> booking = new Booking<>( range );
+        if ( bookings.putIfAbsent( range.start(), booking ) != null ) {
+            return false;
+        }
+        if ( taken( range, false ) ) {
+            booking.state.set( FAILED );
+            bookings.remove( range.start(), booking );
+            return false;
+        }
+        booking.state.set( COMMITTED );
+        return true;
+    }
+
+    /**
+     * Release a booking made before.
+     *
+     * @param range the booked range
+     * @return true if range was booked and is now released
+     */
+    public boolean release( R range ) {
+        Booking<R> booking = bookings.get( range.start() );
+        if ( booking != null && booking.range.equals( range )
+                && booking.state.compareAndSet( COMMITTED, RELEASED ) ) {
+            bookings.remove( range.start(), booking );
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Is range free of bookings.
+     *
+     * @param range to test
+     * @return true if no booking, pending or made, overlaps range
+     */
+    public boolean isFree( R range ) {
+        if ( range.start().compareTo( range.end() ) >= 0 ) {
+            return true;
+        }
+        return !taken( range, true );
+    }
+
+    /**
+     * Find the booking that contains point.
+     *
+     * @param point to look up
+     * @return the booking, or empty when point is free
+     */
+    public Optional<R> bookingAt( P point ) {
+        for ( Booking<R> b : bookings.headMap( point, true ).descendingMap()
+                .values() ) {
+            int state = b.state.get();
+            if ( state == COMMITTED && b.range.contains( point ) ) {
+                return Optional.of( b.range );
+            }
+            if ( state == COMMITTED ) {
+                return Optional.empty();
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Snapshot of the bookings, in start order.
+     *
+     * @return the committed bookings
+     */
+    public List<R> bookings() {
+        return stream().collect( Collectors.toList() );
+    }
+
+    /**
+     * Stream the bookings in start order. The stream is weakly consistent,
+     * like the iterators of the concurrent collections.
+     *
+     * @return the committed bookings
+     */
+    public Stream<R> stream() {
+        return bookings.values().stream()
+                .filter( b -> b.state.get() == COMMITTED )
+                .map( b -> b.range );
+    }
+
+    /**
+     * Check whether a booking other than those that failed overlaps range.
+     * The booking at range start is only considered when withStart is set,
+     * a reservation must not see itself.
+     */
+    private boolean taken( R range, boolean withStart ) {
+        for ( Booking<R> b : bookings.subMap( range.start(), withStart,
+                range.end(), false ).values() ) {
+            if ( b.state.get() != FAILED ) {
+                return true; // starts inside range
+            }
+        }
+        for ( Map.Entry<P, Booking<R>> e : bookings.headMap( range.start(),
+                false ).descendingMap().entrySet() ) {
+            Booking<R> b = e.getValue();
+            int state = b.state.get();
+            if ( state == FAILED ) {
+                continue;
+            }
+            if ( b.range.end().compareTo( range.start() ) > 0 ) {
+                return true;
+            }
+            if ( state != PENDING ) {
+                return false; // validated booking that ends before range
+            }
+        }
+        return false;
+    }
+}
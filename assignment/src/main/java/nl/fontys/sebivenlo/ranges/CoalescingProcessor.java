@@ -0,0 +1,311 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+/**
+ * Flow processor that coalesces a roughly ordered, unbounded stream of
+ * ranges.
+ *
+ * <p>
+ * Incoming ranges are added to a {@link RangeSet} of open ranges, where
+ * ranges that meet or overlap are joined. A watermark tells which ranges are
+ * final: a range that ends before the watermark can no longer meet or overlap
+ * anything still to come and is emitted. The watermark is derived from the
+ * largest start seen so far with the function passed to the constructor, for
+ * instance {@code start -> start.minus(lateness)}, and can be moved forward
+ * with {@link #advanceWatermark}, e.g. on a timer when the stream goes quiet.
+ * A range that arrives after the watermark passed it is emitted on its own.
+ * On completion of the upstream all open ranges are emitted.</p>
+ *
+ * <p>
+ * Memory is bounded by the open ranges plus a buffer of final ranges waiting
+ * for downstream demand; upstream items are only requested while that buffer
+ * has room. There is a single subscriber. Signals to the subscriber are
+ * serialized and never sent while holding the lock on this processor.</p>
+ *
+ * @param <R> range type
+ * @param <P> demarcation type of range
+ * @param <D> unit of distance
+ */
+public final class CoalescingProcessor<R extends Range<R, P, D>, P extends Comparable<? super P>, D extends Comparable<? super D>>
+        implements Flow.Processor<R, R> {
+
+    private final UnaryOperator<P> watermarkOf;
+    private final int bufferSize;
+    private final RangeSet<R, P, D> open = new RangeSet<>();
+    private final ArrayDeque<R> ready = new ArrayDeque<>();
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private Flow.Subscription upstream;
+    private Flow.Subscriber<? super R> downstream;
+    private boolean subscribed;
+    private P watermark;
+    private long demand;
+    private long outstanding;
+    private boolean completed;
+    private Throwable error;
+    private boolean done;
+
+    /**
+     * Create a processor with the default buffer size.
+     *
+     * @param watermarkOf maps the largest start seen to the watermark
+     */
+    public CoalescingProcessor( UnaryOperator<P> watermarkOf ) {
+        this( watermarkOf, Flow.defaultBufferSize() );
+    }
+
+    /**
+     * Create a processor.
+     *
+     * @param watermarkOf maps the largest start seen to the watermark
+     * @param bufferSize number of final ranges kept for the subscriber, which
+     * is also the most items requested from upstream at once
+     */
+    public CoalescingProcessor( UnaryOperator<P> watermarkOf, int bufferSize ) {
+        if ( bufferSize <= 0 ) {
+            throw new IllegalArgumentException( "buffer size must be positive,"
+                    + " not " + bufferSize );
+        }
+        this.watermarkOf = Objects.requireNonNull( watermarkOf );
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public void subscribe( Flow.Subscriber<? super R> subscriber ) {
+        Objects.requireNonNull( subscriber );
+        boolean accepted;
+        synchronized ( this ) {
+            accepted = !subscribed;
+            subscribed = true;
+        }
+        if ( !accepted ) {
+            subscriber.onSubscribe( new Flow.Subscription() {
+                @Override
+                public void request( long n ) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            } );
+            subscriber.onError( new IllegalStateException(
+                    "only one subscriber allowed" ) );
+            return;
+        }
+        subscriber.onSubscribe( new Downstream() );
+        synchronized ( this ) {
+            downstream = subscriber;
+        }
+        drain();
+    }
+
+    @Override
+    public void onSubscribe( Flow.Subscription subscription ) {
+        boolean accepted;
+        synchronized ( this ) {
+            accepted = upstream == null && !done;
+            if ( accepted ) {
+                upstream = subscription;
+            }
+        }
+        if ( accepted ) {
+            drain();
+        } else {
+            subscription.cancel();
+        }
+    }
+
+    @Override
+    public void onNext( R item ) {
+        synchronized ( this ) {
+            if ( done || completed ) {
+                return;
+            }
+            outstanding = Math.max( 0, outstanding - 1 );
+            open.add( item );
+            raise( watermarkOf.apply( item.start() ) );
+        }
+        drain();
+    }
+
+    @Override
+    public void onError( Throwable throwable ) {
+        synchronized ( this ) {
+            if ( done || completed ) {
+                return;
+            }
+            error = throwable;
+            open.clear();
+            ready.clear();
+        }
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        synchronized ( this ) {
+            if ( done || completed ) {
+                return;
+            }
+            completed = true;
+            for ( R r : open ) {
+                ready.add( r );
+            }
+            open.clear();
+        }
+        drain();
+    }
+
+    /**
+     * Move the watermark forward and emit the ranges that became final. A
+     * watermark before the current one is ignored.
+     *
+     * @param newWatermark the new watermark
+     */
+    public void advanceWatermark( P newWatermark ) {
+        synchronized ( this ) {
+            if ( done || completed ) {
+                return;
+            }
+            raise( newWatermark );
+        }
+        drain();
+    }
+
+    /**
+     * The current watermark.
+     *
+     * @return the watermark, null before the first item
+     */
+    public synchronized P watermark() {
+        return watermark;
+    }
+
+    /**
+     * The number of ranges that are not final yet.
+     *
+     * @return the open range count
+     */
+    public synchronized int openRanges() {
+        return open.size();
+    }
+
+    /**
+     * Raise the watermark and move the ranges ending before it to ready.
+     * Open ranges are disjoint, so their ends ascend like their starts.
+     */
+    private void raise( P candidate ) {
+        if ( watermark == null || candidate.compareTo( watermark ) > 0 ) {
+            watermark = candidate;
+        }
+        Iterator<R> it = open.iterator();
+        while ( it.hasNext() ) {
+            R r = it.next();
+            if ( r.end().compareTo( watermark ) >= 0 ) {
+                break;
+            }
+            ready.add( r );
+            it.remove();
+        }
+    }
+
+    /**
+     * Deliver what the state allows, from one thread at a time. Other threads
+     * only leave a note in wip, which makes the running thread loop again.
+     */
+    private void drain() {
+        if ( wip.getAndIncrement() != 0 ) {
+            return;
+        }
+        int missed = 1;
+        do {
+            boolean more = true;
+            while ( more ) {
+                Flow.Subscriber<? super R> subscriber;
+                Flow.Subscription subscription;
+                R next = null;
+                Throwable failure = null;
+                boolean complete = false;
+                long toRequest = 0;
+                synchronized ( this ) {
+                    subscriber = downstream;
+                    subscription = upstream;
+                    if ( subscriber == null || done ) {
+                        break;
+                    }
+                    if ( error != null ) {
+                        failure = error;
+                        done = true;
+                    } else if ( demand > 0 && !ready.isEmpty() ) {
+                        next = ready.poll();
+                        demand--;
+                    } else if ( completed && ready.isEmpty() ) {
+                        complete = true;
+                        done = true;
+                    } else if ( !completed && subscription != null ) {
+                        toRequest = Math.max( 0, bufferSize - ready.size()
+                                - outstanding );
+                        outstanding += toRequest;
+                    }
+                }
+                more = next != null;
+                if ( failure != null ) {
+                    subscriber.onError( failure );
+                } else if ( complete ) {
+                    subscriber.onComplete();
+                } else if ( next != null ) {
+                    subscriber.onNext( next );
+                } else if ( toRequest > 0 ) {
+                    subscription.request( toRequest );
+                }
+            }
+            missed = wip.addAndGet( -missed );
+        } while ( missed != 0 );
+    }
+
+    /**
+     * The subscription handed to the subscriber.
+     */
+    private final class Downstream implements Flow.Subscription {
+
+        @Override
+        public void request( long n ) {
+            Flow.Subscription cancel = null;
+            synchronized ( CoalescingProcessor.this ) {
+                if ( n <= 0 ) {
+                    if ( error == null ) {
+                        error = new IllegalArgumentException(
+                                "request must be positive, not " + n );
+                    }
+                    cancel = upstream;
+                } else {
+                    demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                }
+            }
+            if ( cancel != null ) {
+                cancel.cancel();
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            Flow.Subscription cancel;
+            synchronized ( CoalescingProcessor.this ) {
+                done = true;
+                open.clear();
+                ready.clear();
+                cancel = upstream;
+            }
+            if ( cancel != null ) {
+                cancel.cancel();
+            }
+        }
+    }
+}
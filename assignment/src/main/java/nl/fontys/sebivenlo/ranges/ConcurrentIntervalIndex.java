@@ -0,0 +1,405 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Mutable, thread safe index over ranges, answering which ranges contain a
+ * point or overlap another range, like {@link IntervalIndex} but with insert
+ * and remove.
+ *
+ * <p>
+ * The ranges are held in a persistent AVL tree ordered by start and then end,
+ * each node augmented with the maximum end of its subtree. Nodes are never
+ * modified: an update copies the O(log N) nodes on the path to the change and
+ * publishes the new root with a compare and set, retrying when another writer
+ * came first. A reader takes the root once and works on that snapshot, so
+ * queries and iteration take no locks, are never disturbed by writers and see
+ * exactly the ranges present at the moment they started. Read throughput
+ * therefore grows with the number of reader threads. Queries take O(log N +
+ * K) for K results, updates O(log N).</p>
+ *
+ * <p>
+ * Ranges with the same start and end are considered the same, each is held
+ * once. Empty ranges contain and overlap nothing and are not inserted.</p>
+ *
+ * @param <R> range type
+ * @param <P> demarcation type of range
+ * @param <D> unit of distance
+ */
+public final class ConcurrentIntervalIndex<R extends Range<R, P, D>, P extends Comparable<? super P>, D extends Comparable<? super D>>
+        implements Iterable<R> {
+
+    private final AtomicReference<Node<R, P>> root = new AtomicReference<>();
+
+    /**
+     * Create an empty index.
+     */
+    public ConcurrentIntervalIndex() {
+    }
+
+    /**
+     * Immutable tree node.
+     */
+    private static final class Node<R extends Range<R, P, ?>, P extends Comparable<? super P>> {
+
+        final R range;
+        final Node<R, P> left;
+        final Node<R, P> right;
+        final int height;
+        final int size;
+        final P maxEnd;
+
+        Node( R range, Node<R, P> left, Node<R, P> right ) {
+            this.range = range;
+            this.left = left;
+            this.right = right;
+            this.height = 1 + Math.max( height( left ), height( right ) );
+            this.size = 1 + size( left ) + size( right );
+            P max = range.end();
+            if ( left != null ) {
+                max = Range.max( max, left.maxEnd );
+            }
+            if ( right != null ) {
+                max = Range.max( max, right.maxEnd );
+            }
+            this.maxEnd = max;
+        }
+    }
+
+    private static int height( Node<?, ?> node ) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int size( Node<?, ?> node ) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static <P extends Comparable<? super P>> boolean isEmpty( Range<?, P, ?> r ) {
+        return r.start().compareTo( r.end() ) >= 0;
+    }
+
+    private int compare( R a, R b ) {
+        int c = a.start().compareTo( b.start() );
+        return c != 0 ? c : a.end().compareTo( b.end() );
+    }
+
+    /**
+     * Add range.
+     *
+     * @param range to add
+     * @return true if the index changed, false for an empty range or one that
+     * is present already
+     */
+    public boolean insert( R range ) {
+        if ( isEmpty( range ) ) {
+            return false;
+        }
+        while ( true ) {
+            Node<R, P> current = root.get();
+            Node<R, P> updated = insert( current, range );
+            if ( updated == current ) {
+                return false;
+            }
+            if ( root.compareAndSet( current, updated ) ) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Remove the range with the same start and end as range.
+     *
+     * @param range to remove
+     * @return true if the index changed
+     */
+    public boolean remove( R range ) {
+        while ( true ) {
+            Node<R, P> current = root.get();
+            Node<R, P> updated = remove( current, range );
+            if ( updated == current ) {
+                return false;
+            }
+            if ( root.compareAndSet( current, updated ) ) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Remove all ranges.
+     */
+    public void clear() {
+        root.set( null );
+    }
+
+    /**
+     * Insert into a copy of the subtree, or return the subtree itself when
+     * range is present.
+     */
+    private Node<R, P> insert( Node<R, P> node, R range ) {
+        if ( node == null ) {
+            return new Node<>( range, null, null );
+        }
+        int c = compare( range, node.range );
+        if ( c < 0 ) {
+            Node<R, P> left = insert( node.left, range );
+            return left == node.left ? node : balance( node.range, left, node.right );
+        }
+        if ( c > 0 ) {
+            Node<R, P> right = insert( node.right, range );
+            return right == node.right ? node : balance( node.range, node.left, right );
+        }
+        return node;
+    }
+
+    /**
+     * Remove from a copy of the subtree, or return the subtree itself when
+     * range is absent.
+     */
+    private Node<R, P> remove( Node<R, P> node, R range ) {
+        if ( node == null ) {
+            return null;
+        }
+        int c = compare( range, node.range );
+        if ( c < 0 ) {
+            Node<R, P> left = remove( node.left, range );
+            return left == node.left ? node : balance( node.range, left, node.right );
+        }
+        if ( c > 0 ) {
+            Node<R, P> right = remove( node.right, range );
+            return right == node.right ? node : balance( node.range, node.left, right );
+        }
+        if ( node.left == null ) {
+            return node.right;
+        }
+        if ( node.right == null ) {
+            return node.left;
+        }
+        Node<R, P> first = node.right;
+        while ( first.left != null ) {
+            first = first.left;
+        }
+        return balance( first.range, node.left, removeFirst( node.right ) );
+    }
+
+    private Node<R, P> removeFirst( Node<R, P> node ) {
+        if ( node.left == null ) {
+            return node.right;
+        }
+        return balance( node.range, removeFirst( node.left ), node.right );
+    }
+
+    /**
+     * Make a node of range and the subtrees, rotating when their heights
+     * differ by 2.
+     */
+    private Node<R, P> balance( R range, Node<R, P> left, Node<R, P> right ) {
+        int hl = height( left );
+        int hr = height( right );
+        if ( hl > hr + 1 ) {
+            if ( height( left.left ) >= height( left.right ) ) {
+                return new Node<>( left.range, left.left,
+                        new Node<>( range, left.right, right ) );
+            }
+            Node<R, P> lr = left.right;
+            return new Node<>( lr.range, new Node<>( left.range, left.left, lr.left ),
+                    new Node<>( range, lr.right, right ) );
+        }
+        if ( hr > hl + 1 ) {
+            if ( height( right.right ) >= height( right.left ) ) {
+                return new Node<>( right.range, new Node<>( range, left, right.left ),
+                        right.right );
+            }
+            Node<R, P> rl = right.left;
+            return new Node<>( rl.range, new Node<>( range, left, rl.left ),
+                    new Node<>( right.range, rl.right, right.right ) );
+        }
+        return new Node<>( range, left, right );
+    }
+
+    /**
+     * The number of ranges.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size( root.get() );
+    }
+
+    /**
+     * Is this index empty.
+     *
+     * @return true when there are no ranges
+     */
+    public boolean isEmpty() {
+        return root.get() == null;
+    }
+
+    /**
+     * Is a range with the same start and end as range present.
+     *
+     * @param range to look up
+     * @return true if present
+     */
+    public boolean contains( R range ) {
+        Node<R, P> node = root.get();
+        while ( node != null ) {
+            int c = compare( range, node.range );
+            if ( c == 0 ) {
+                return true;
+            }
+            node = c < 0 ? node.left : node.right;
+        }
+        return false;
+    }
+
+    /**
+     * Visit every range that contains the point, in start order.
+     *
+     * @param point to stab with
+     * @param action to apply to each containing range
+     */
+    public void forEachContaining( P point, Consumer<? super R> action ) {
+        visit( root.get(), point, point, true, action );
+    }
+
+    /**
+     * Visit every range that overlaps the other range, in start order.
+     *
+     * @param other range to test against
+     * @param action to apply to each overlapping range
+     */
+    public void forEachOverlapping( R other, Consumer<? super R> action ) {
+        if ( isEmpty( other ) ) {
+            return; // an empty range overlaps nothing
+        }
+        visit( root.get(), other.start(), other.end(), false, action );
+    }
+
+    /**
+     * Collect the ranges that contain the point.
+     *
+     * @param point to stab with
+     * @return the ranges containing point, in start order
+     */
+    public List<R> containing( P point ) {
+        List<R> result = new ArrayList<>();
+        forEachContaining( point, result::add );
+        return result;
+    }
+
+    /**
+     * Collect the ranges that overlap other.
+     *
+     * @param other to test
+     * @return the ranges overlapping other, in start order
+     */
+    public List<R> overlapping( R other ) {
+        List<R> result = new ArrayList<>();
+        forEachOverlapping( other, result::add );
+        return result;
+    }
+
+    /**
+     * In order walk of the subtree, reporting the ranges with end &gt; from
+     * and start &lt; to (or start &le; to when inclusive).
+     */
+    private void visit( Node<R, P> node, P from, P to, boolean inclusive,
+            Consumer<? super R> action ) {
+        while ( node != null && node.maxEnd.compareTo( from ) > 0 ) {
+            visit( node.left, from, to, inclusive, action );
+            int c = node.range.start().compareTo( to );
+            if ( inclusive ? c > 0 : c >= 0 ) {
+                return; // this and all to the right start too late
+            }
+            if ( node.range.end().compareTo( from ) > 0 ) {
+                action.accept( node.range );
+            }
+            node = node.right;
+        }
+    }
+
+    /**
+     * All ranges, in start and then end order, as a snapshot.
+     *
+     * @return unmodifiable list of the ranges
+     */
+    public List<R> ranges() {
+        Node<R, P> snapshot = root.get();
+        List<R> result = new ArrayList<>( size( snapshot ) );
+        iterator( snapshot ).forEachRemaining( result::add );
+        return Collections.unmodifiableList( result );
+    }
+
+    /**
+     * Iterate over the ranges present when this method is called, in start
+     * and then end order. Later updates do not affect the iteration.
+     *
+     * @return the iterator
+     */
+    @Override
+    public Iterator<R> iterator() {
+        return iterator( root.get() );
+    }
+
+    /**
+     * Stream the ranges present when this method is called, in start and
+     * then end order.
+     *
+     * @return the stream
+     */
+    public Stream<R> stream() {
+        Node<R, P> snapshot = root.get();
+        return StreamSupport.stream( Spliterators.spliterator( iterator( snapshot ),
+                size( snapshot ), Spliterator.ORDERED | Spliterator.DISTINCT
+                | Spliterator.NONNULL | Spliterator.IMMUTABLE ), false );
+    }
+
+    private Iterator<R> iterator( Node<R, P> snapshot ) {
+        return new Iterator<R>() {
+            final Deque<Node<R, P>> path = new ArrayDeque<>();
+
+            {
+                descend( snapshot );
+            }
+
+            private void descend( Node<R, P> node ) {
+                for ( ; node != null; node = node.left ) {
+                    path.push( node );
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !path.isEmpty();
+            }
+
+            @Override
+            public R next() {
+                if ( path.isEmpty() ) {
+                    throw new NoSuchElementException();
+                }
+                Node<R, P> node = path.pop();
+                descend( node.right );
+                return node.range;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return ranges().toString();
+    }
+}
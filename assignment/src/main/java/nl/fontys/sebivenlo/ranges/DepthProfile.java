@@ -0,0 +1,233 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Coverage depth of a collection of ranges: for every point, how many of the
+ * ranges contain it.
+ *
+ * <p>
+ * The depth is a step function, returned as the {@link Segment}s between the
+ * first start and the last end, each a range with a constant depth. Segments
+ * are maximal, so two neighbours always differ in depth; gaps inside the
+ * covered stretch are segments of depth 0. The profile is computed with a
+ * sweep: the starts and the ends are sorted separately, with
+ * {@link Arrays#parallelSort(Comparable[])}, which uses the common fork join
+ * pool for large arrays, and then merged, taking ends before starts at equal
+ * positions because ranges are half open. All of this takes O(N log N).
+ * Empty ranges are ignored.</p>
+ *
+ * @param <R> range type
+ * @param <P> demarcation type of range
+ * @param <D> unit of distance
+ */
+public final class DepthProfile<R extends Range<R, P, D>, P extends Comparable<? super P>, D extends Comparable<? super D>> {
+
+    /**
+     * A range with the number of input ranges covering it.
+     *
+     * @param <R> range type
+     */
+    public static final class Segment<R> {
+
+        private final R range;
+        private final int depth;
+
+        Segment( R range, int depth ) {
+            this.range = range;
+            this.depth = depth;
+        }
+
+        /**
+         * The stretch with constant depth.
+         *
+         * @return the range
+         */
+        public R range() {
+            return range;
+        }
+
+        /**
+         * Number of input ranges containing every point of the range.
+         *
+         * @return the depth
+         */
+        public int depth() {
+            return depth;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * range.hashCode() + depth;
+        }
+
+        @Override
+        public boolean equals( Object obj ) {
+            if ( this == obj ) {
+                return true;
+            }
+            if ( !( obj instanceof Segment ) ) {
+                return false;
+            }
+            Segment<?> other = (Segment<?>) obj;
+            return depth == other.depth && range.equals( other.range );
+        }
+
+        @Override
+        public String toString() {
+            return range + "x" + depth;
+        }
+    }
+
+    private final List<Segment<R>> segments;
+    private final int maxDepth;
+
+    private DepthProfile( List<Segment<R>> segments, int maxDepth ) {
+        this.segments = segments;
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Compute the profile of the given ranges.
+     *
+     * @param <R> range type
+     * @param <P> demarcation type of range
+     * @param <D> unit of distance
+     * @param ranges to profile, in any order
+     * @return the profile
+     */
+    @SuppressWarnings( "unchecked" )
+    public static <R extends Range<R, P, D>, P extends Comparable<? super P>, D extends Comparable<? super D>>
+            DepthProfile<R, P, D> of( Collection<? extends R> ranges ) {
+        P[] starts = (P[]) new Comparable<?>[ ranges.size() ];
+        P[] ends = (P[]) new Comparable<?>[ ranges.size() ];
+        R factory = null;
+        int n = 0;
+        for ( R r : ranges ) {
+            P start = r.start();
+            P end = r.end();
+            if ( start.compareTo( end ) < 0 ) {
+                starts[ n ] = start;
+                ends[ n ] = end;
+                factory = r;
+                n++;
+            }
+        }
+        Arrays.parallelSort( starts, 0, n );
+        Arrays.parallelSort( ends, 0, n );
+
+        List<Segment<R>> segments = new ArrayList<>();
+        int maxDepth = 0;
+        int depth = 0;
+        P from = null;
+        int s = 0;
+        int e = 0;
+        while ( e < n ) {
+            P at = s < n && starts[ s ].compareTo( ends[ e ] ) < 0 ? starts[ s ]
+                    : ends[ e ];
+            int newDepth = depth;
+            while ( e < n && ends[ e ].compareTo( at ) == 0 ) {
+                newDepth--;
+                e++;
+            }
+            while ( s < n && starts[ s ].compareTo( at ) == 0 ) {
+                newDepth++;
+                s++;
+            }
+            if ( newDepth != depth ) {
+                if ( from != null ) {
+                    segments.add( new Segment<>( factory.between( from, at ), depth ) );
+                }
+                from = at;
+                depth = newDepth;
+                maxDepth = Math.max( maxDepth, depth );
+            }
+        }
+        return new DepthProfile<>( Collections.unmodifiableList( segments ),
+                maxDepth );
+    }
+
+    /**
+     * The step function, in ascending order.
+     *
+     * @return unmodifiable list of the segments
+     */
+    public List<Segment<R>> segments() {
+        return segments;
+    }
+
+    /**
+     * The largest number of ranges that overlap in one point.
+     *
+     * @return the maximum depth, 0 for no ranges
+     */
+    public int maxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Where the maximum depth is reached.
+     *
+     * @return the ranges of the segments with maximum depth, in ascending order
+     */
+    public List<R> maxDepthRanges() {
+        List<R> result = new ArrayList<>();
+        for ( Segment<R> segment : segments ) {
+            if ( segment.depth == maxDepth ) {
+                result.add( segment.range );
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Number of ranges that contain point. Takes a binary search over the
+     * segments.
+     *
+     * @param point to look up
+     * @return the depth at point
+     */
+    public int depthAt( P point ) {
+        int lo = 0;
+        int hi = segments.size();
+        while ( lo < hi ) {
+            int mid = ( lo + hi ) >>> 1;
+            if ( segments.get( mid ).range.start().compareTo( point ) <= 0 ) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        if ( lo == 0 ) {
+            return 0;
+        }
+        Segment<R> segment = segments.get( lo - 1 );
+        return segment.range.contains( point ) ? segment.depth : 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return segments.hashCode();
+    }
+
+    @Override
+    public boolean equals( Object obj ) {
+        if ( this == obj ) {
+            return true;
+        }
+        if ( !( obj instanceof DepthProfile ) ) {
+            return false;
+        }
+        return Objects.equals( segments, ( (DepthProfile<?, ?, ?>) obj ).segments );
+    }
+
+    @Override
+    public String toString() {
+        return segments.toString();
+    }
+}
@@ -0,0 +1,233 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Immutable index over the gaps between bookings, answering where the first
+ * free stretch of a minimum length starts.
+ *
+ * <p>
+ * The bookings are coalesced first, so the gaps between them are non empty
+ * and sorted. Their lengths are measured once with {@link Range#meter()}.
+ * Like {@link IntervalIndex}, the sorted gaps are read as an implicit
+ * balanced binary tree, here augmented with the longest gap in each subtree,
+ * so the search for the first long enough gap skips every subtree whose
+ * longest gap is too short. A query takes O(log N).</p>
+ *
+ * <p>
+ * Before the first booking and after the last one, time is free without
+ * limit.</p>
+ *
+ * @param <R> range type
+ * @param <P> demarcation type of range
+ * @param <D> unit of distance
+ */
+public final class FreeSlotIndex<R extends Range<R, P, D>, P extends Comparable<? super P>, D extends Comparable<? super D>> {
+
+    private final List<R> bookings;
+    private final D[] gapLength;
+    private final D[] maxGap;
+
+    @SuppressWarnings( "unchecked" )
+    private FreeSlotIndex( List<R> bookings ) {
+        this.bookings = bookings;
+        int gaps = Math.max( 0, bookings.size() - 1 );
+        this.gapLength = (D[]) new Comparable<?>[ gaps ];
+        this.maxGap = (D[]) new Comparable<?>[ gaps ];
+        for ( int i = 0; i < gaps; i++ ) {
+            R booking = bookings.get( i );
+            gapLength[ i ] = booking.meter().apply( booking.end(), bookings
+                    .get( i + 1 ).start() );
+        }
+        augment( 0, gaps );
+    }
+
+    /**
+     * Build an index over the given bookings, which may meet or overlap.
+     *
+     * @param <R> range type
+     * @param <P> demarcation type of range
+     * @param <D> unit of distance
+     * @param bookings the taken ranges
+     * @return the index
+     */
+    public static <R extends Range<R, P, D>, P extends Comparable<? super P>, D extends Comparable<? super D>>
+            FreeSlotIndex<R, P, D> of( Collection<? extends R> bookings ) {
+        List<R> coalesced = bookings.stream()
+                .<R>map( r -> r )
+                .collect( RangeCollectors.coalescing() );
+        return new FreeSlotIndex<>( coalesced );
+    }
+
+    /**
+     * Compute the longest gap of the subtree for slice [lo,hi).
+     *
+     * @return the longest gap or null for an empty slice
+     */
+    private D augment( int lo, int hi ) {
+        if ( lo >= hi ) {
+            return null;
+        }
+        int mid = ( lo + hi ) >>> 1;
+        D max = gapLength[ mid ];
+        D left = augment( lo, mid );
+        D right = augment( mid + 1, hi );
+        if ( left != null ) {
+            max = Range.max( max, left );
+        }
+        if ( right != null ) {
+            max = Range.max( max, right );
+        }
+        maxGap[ mid ] = max;
+        return max;
+    }
+
+    /**
+     * Find the earliest point at or after notBefore that is followed by at
+     * least minLength of free time.
+     *
+     * @param notBefore earliest acceptable start
+     * @param minLength the required free length
+     * @return the start of the free slot
+     * @throws IllegalArgumentException when minLength is negative
+     */
+    public P earliestFreeStart( P notBefore, D minLength ) {
+        if ( bookings.isEmpty() ) {
+            return notBefore;
+        }
+        R first = bookings.get( 0 );
+        if ( minLength.compareTo( first.zero() ) < 0 ) {
+            throw new IllegalArgumentException( "negative length " + minLength );
+        }
+        int from;
+        if ( notBefore.compareTo( first.start() ) < 0 ) {
+            if ( first.meter().apply( notBefore, first.start() ).compareTo( minLength ) >= 0 ) {
+                return notBefore;
+            }
+            from = 0;
+        } else {
+            int b = lastStartAtMost( notBefore );
+            R booking = bookings.get( b );
+            if ( booking.end().compareTo( notBefore ) > 0 ) {
+                from = b; // inside a booking, the gap after it is the first
+            } else if ( b == bookings.size() - 1 ) {
+                return notBefore;
+            } else if ( booking.meter().apply( notBefore, bookings.get( b + 1 )
+                    .start() ).compareTo( minLength ) >= 0 ) {
+                return notBefore;
+            } else {
+                from = b + 1;
+            }
+        }
+        int gap = firstAtLeast( 0, gapLength.length, from, minLength );
+        return gap >= 0 ? bookings.get( gap ).end()
+                : bookings.get( bookings.size() - 1 ).end();
+    }
+
+    /**
+     * Find the earliest gap between two bookings that holds at least
+     * minLength after notBefore. The unbounded free time before the first and
+     * after the last booking is not a gap.
+     *
+     * @param notBefore earliest acceptable start
+     * @param minLength the required free length
+     * @return the free part of the gap, starting at notBefore or later
+     */
+    public Optional<R> earliestGap( P notBefore, D minLength ) {
+        if ( bookings.isEmpty() ) {
+            return Optional.empty();
+        }
+        if ( minLength.compareTo( bookings.get( 0 ).zero() ) < 0 ) {
+            throw new IllegalArgumentException( "negative length " + minLength );
+        }
+        int b = lastStartAtMost( notBefore );
+        int from;
+        if ( b < 0 ) {
+            from = 0;
+        } else if ( bookings.get( b ).end().compareTo( notBefore ) > 0 ) {
+            from = b; // inside a booking, the gap after it is the first
+        } else if ( b == bookings.size() - 1 ) {
+            return Optional.empty();
+        } else {
+            R booking = bookings.get( b );
+            P next = bookings.get( b + 1 ).start();
+            if ( booking.meter().apply( notBefore, next ).compareTo( minLength ) >= 0 ) {
+                return Optional.of( booking.between( notBefore, next ) );
+            }
+            from = b + 1;
+        }
+        int gap = firstAtLeast( 0, gapLength.length, from, minLength );
+        if ( gap < 0 ) {
+            return Optional.empty();
+        }
+        R booking = bookings.get( gap );
+        return Optional.of( booking.between( booking.end(), bookings.get( gap + 1 ).start() ) );
+    }
+
+    /**
+     * First gap index at or after from in slice [lo,hi) that is at least
+     * min long, -1 if there is none.
+     */
+    private int firstAtLeast( int lo, int hi, int from, D min ) {
+        if ( lo >= hi || hi <= from ) {
+            return -1;
+        }
+        int mid = ( lo + hi ) >>> 1;
+        if ( maxGap[ mid ].compareTo( min ) < 0 ) {
+            return -1;
+        }
+        int left = firstAtLeast( lo, mid, from, min );
+        if ( left >= 0 ) {
+            return left;
+        }
+        if ( mid >= from && gapLength[ mid ].compareTo( min ) >= 0 ) {
+            return mid;
+        }
+        return firstAtLeast( mid + 1, hi, from, min );
+    }
+
+    /**
+     * Index of the last booking starting at or before point, -1 if none.
+     */
+    private int lastStartAtMost( P point ) {
+        int lo = 0;
+        int hi = bookings.size();
+        while ( lo < hi ) {
+            int mid = ( lo + hi ) >>> 1;
+            if ( bookings.get( mid ).start().compareTo( point ) <= 0 ) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo - 1;
+    }
+
+    /**
+     * The coalesced bookings.
+     *
+     * @return unmodifiable list of the bookings in ascending order
+     */
+    public List<R> bookings() {
+        return Collections.unmodifiableList( bookings );
+    }
+
+    /**
+     * The gaps between the coalesced bookings.
+     *
+     * @return the gaps in ascending order
+     */
+    public List<R> gaps() {
+        List<R> result = new ArrayList<>( gapLength.length );
+        for ( int i = 0; i < gapLength.length; i++ ) {
+            R booking = bookings.get( i );
+            result.add( booking.between( booking.end(), bookings.get( i + 1 )
+                    .start() ) );
+        }
+        return result;
+    }
+}
@@ -1,26 +1,105 @@
 package nl.fontys.sebivenlo.ranges;
 
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.time.DateTimeException;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Optional;
 import java.util.function.BiFunction;
 
+/**
+ * Range on the time line.
+ *
+ * <p>
+ * The boundaries are stored as epoch second plus nano of second primitives,
+ * the same split {@link Instant} uses internally. The default methods of
+ * {@link Range} that only compare boundaries are overridden with primitive
+ * comparisons, so {@code contains}, {@code overlaps}, {@code meets},
+ * {@code compareTo}, {@code equals} and {@code hashCode} do not create
+ * {@link Instant}s. {@link #lengthNanos()} and {@link #overlapNanos} return the
+ * distances as {@code long}. The Instants of the generic API,
+ * {@link #start()} and {@link #end()}, are created on first use and cached,
+ * so generic structures that read the boundaries over and over, like
+ * {@link IntervalIndex} or {@link RangeSet}, allocate them only once per
+ * range.</p>
+ */
 public class InstantRange implements Range<InstantRange, Instant, Duration>{
-    private final Instant start;
-    private final Instant end;
+    private static final long serialVersionUID = 1L;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long MIN_SECOND = Instant.MIN.getEpochSecond();
+    private static final long MAX_SECOND = Instant.MAX.getEpochSecond();
 
-    private InstantRange(Instant[] i) {
-        this.start = Range.min(i[0], i[1]);
-        this.end = Range.max(i[0], i[1]);
+    private final long startSecond;
+    private final int startNano;
+    private final long endSecond;
+    private final int endNano;
+    private transient int hash; // 0 until computed, like String
+    // created on demand; Instant is immutable, so a racy cache is safe
+    private transient Instant start;
+    private transient Instant end;
+
+    private InstantRange(long startSecond, int startNano, long endSecond, int endNano) {
+        this.startSecond = startSecond;
+        this.startNano = startNano;
+        this.endSecond = endSecond;
+        this.endNano = endNano;
     }
 
     @Override
     public Instant start() {
-        return this.start;
+        Instant s = start;
+        if (s == null) {
+            s = Instant.ofEpochSecond(startSecond, startNano);
+            start = s;
+        }
+        return s;
     }
 
     @Override
     public Instant end() {
-        return this.end;
+        Instant e = end;
+        if (e == null) {
+            e = Instant.ofEpochSecond(endSecond, endNano);
+            end = e;
+        }
+        return e;
+    }
+
+    /**
+     * Epoch second of start.
+     *
+     * @return the seconds since 1970-01-01T00:00:00Z
+     */
+    public long startEpochSecond() {
+        return startSecond;
+    }
+
+    /**
+     * Nano of second of start.
+     *
+     * @return nanos, 0 to 999,999,999
+     */
+    public int startNano() {
+        return startNano;
+    }
+
+    /**
+     * Epoch second of end.
+     *
+     * @return the seconds since 1970-01-01T00:00:00Z
+     */
+    public long endEpochSecond() {
+        return endSecond;
+    }
+
+    /**
+     * Nano of second of end.
+     *
+     * @return nanos, 0 to 999,999,999
+     */
+    public int endNano() {
+        return endNano;
     }
 
     @Override
@@ -28,6 +107,137 @@ public class InstantRange implements Range<InstantRange, Instant, Duration>{
         return Duration::between;
     }
 
+    @Override
+    public Duration length() {
+        return Duration.ofSeconds(endSecond - startSecond, endNano - startNano);
+    }
+
+    /**
+     * Length in nano seconds.
+     *
+     * @return end - start in nanos
+     * @throws ArithmeticException when the length does not fit a long, which
+     * is about 292 years
+     */
+    public long lengthNanos() {
+        return nanosBetween(startSecond, startNano, endSecond, endNano);
+    }
+
+    /**
+     * Length of the overlap with other in nano seconds.
+     *
+     * @param other range
+     * @return the overlap in nanos, 0 when there is none
+     * @throws ArithmeticException when the overlap does not fit a long
+     */
+    public long overlapNanos(InstantRange other) {
+        if (!overlaps(other)) {
+            return 0L;
+        }
+        InstantRange lastStart = compare(startSecond, startNano, other.startSecond, other.startNano) >= 0 ? this : other;
+        InstantRange firstEnd = compare(endSecond, endNano, other.endSecond, other.endNano) <= 0 ? this : other;
+        return nanosBetween(lastStart.startSecond, lastStart.startNano, firstEnd.endSecond, firstEnd.endNano);
+    }
+
+    @Override
+    public Duration overlap(InstantRange other) {
+        if (!overlaps(other)) {
+            return Duration.ZERO;
+        }
+        InstantRange lastStart = compare(startSecond, startNano, other.startSecond, other.startNano) >= 0 ? this : other;
+        InstantRange firstEnd = compare(endSecond, endNano, other.endSecond, other.endNano) <= 0 ? this : other;
+        return Duration.ofSeconds(firstEnd.endSecond - lastStart.startSecond, firstEnd.endNano - lastStart.startNano);
+    }
+
+    @Override
+    public boolean contains(Instant point) {
+        long s = point.getEpochSecond();
+        int n = point.getNano();
+        return compare(startSecond, startNano, s, n) <= 0 && compare(endSecond, endNano, s, n) > 0;
+    }
+
+    @Override
+    public boolean contains(InstantRange other) {
+        return compare(startSecond, startNano, other.startSecond, other.startNano) <= 0
+                && compare(endSecond, endNano, other.endSecond, other.endNano) >= 0;
+    }
+
+    @Override
+    public boolean overlaps(InstantRange other) {
+        // min(end) > max(start) is: both ends after both starts
+        return compare(endSecond, endNano, other.startSecond, other.startNano) > 0
+                && compare(other.endSecond, other.endNano, startSecond, startNano) > 0
+                && compare(endSecond, endNano, startSecond, startNano) > 0
+                && compare(other.endSecond, other.endNano, other.startSecond, other.startNano) > 0;
+    }
+
+    @Override
+    public boolean meets(InstantRange other) {
+        InstantRange lastStart = compare(startSecond, startNano, other.startSecond, other.startNano) >= 0 ? this : other;
+        InstantRange firstEnd = compare(endSecond, endNano, other.endSecond, other.endNano) <= 0 ? this : other;
+        return lastStart.startSecond == firstEnd.endSecond && lastStart.startNano == firstEnd.endNano;
+    }
+
+    @Override
+    public boolean meetsOrOverlaps(InstantRange other) {
+        InstantRange lastStart = compare(startSecond, startNano, other.startSecond, other.startNano) >= 0 ? this : other;
+        InstantRange firstEnd = compare(endSecond, endNano, other.endSecond, other.endNano) <= 0 ? this : other;
+        return compare(firstEnd.endSecond, firstEnd.endNano, lastStart.startSecond, lastStart.startNano) >= 0;
+    }
+
+    @Override
+    public InstantRange joinWith(InstantRange other) throws IllegalArgumentException {
+        RangeEvents.Join event = new RangeEvents.Join();
+        event.begin();
+        checkMeetsOrOverlaps(other);
+        InstantRange firstStart = compare(startSecond, startNano, other.startSecond, other.startNano) <= 0 ? this : other;
+        InstantRange lastEnd = compare(endSecond, endNano, other.endSecond, other.endNano) >= 0 ? this : other;
+        InstantRange result = span(firstStart, lastEnd);
+        event.report(this);
+        return result;
+    }
+
+    @Override
+    public InstantRange tryJoinWith(InstantRange other) {
+        if (!meetsOrOverlaps(other)) {
+            return null;
+        }
+        InstantRange firstStart = compare(startSecond, startNano, other.startSecond, other.startNano) <= 0 ? this : other;
+        InstantRange lastEnd = compare(endSecond, endNano, other.endSecond, other.endNano) >= 0 ? this : other;
+        return span(firstStart, lastEnd);
+    }
+
+    @Override
+    public Optional<InstantRange> intersectWith(InstantRange other) {
+        RangeEvents.Intersect event = new RangeEvents.Intersect();
+        event.begin();
+        Optional<InstantRange> result = Optional.empty();
+        if (overlaps(other)) {
+            InstantRange lastStart = compare(startSecond, startNano, other.startSecond, other.startNano) >= 0 ? this : other;
+            InstantRange firstEnd = compare(endSecond, endNano, other.endSecond, other.endNano) <= 0 ? this : other;
+            result = Optional.of(span(lastStart, firstEnd));
+        }
+        event.report(this);
+        return result;
+    }
+
+    /**
+     * The range from the start of from to the end of to, which must not be
+     * before that start. The boundaries are valid already, so no checks, and
+     * the Instants they already hold are shared.
+     */
+    private static InstantRange span(InstantRange from, InstantRange to) {
+        InstantRange result = new InstantRange(from.startSecond, from.startNano, to.endSecond, to.endNano);
+        result.start = from.start;
+        result.end = to.end;
+        return result;
+    }
+
+    @Override
+    public int compareTo(InstantRange other) {
+        return compare(startSecond, startNano, other.startSecond, other.startNano);
+    }
+
     @Override
     public InstantRange between(Instant startInclusive, Instant endExclusive) {
         return InstantRange.of(startInclusive, endExclusive);
@@ -35,13 +245,26 @@ public class InstantRange implements Range<InstantRange, Instant, Duration>{
 
     @Override
     public int hashCode() {
-        return rangeHashCode();
+        int h = hash;
+        if (h == 0) {
+            // same value as rangeHashCode, without creating the Instants
+            h = 31 * (31 + instantHash(startSecond, startNano)) + instantHash(endSecond, endNano);
+            hash = h;
+        }
+        return h;
     }
 
     @Override
-    @SuppressWarnings( "EqualsWhichDoesntCheckParameterClass" )
     public boolean equals(Object obj) {
-        return rangeEquals(obj);
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || this.getClass() != obj.getClass()) {
+            return false;
+        }
+        InstantRange other = (InstantRange) obj;
+        return startSecond == other.startSecond && startNano == other.startNano
+                && endSecond == other.endSecond && endNano == other.endNano;
     }
 
     @Override
@@ -55,7 +278,74 @@ public class InstantRange implements Range<InstantRange, Instant, Duration>{
     }
 
     public static InstantRange of( Instant start, Instant end ) {
-        Instant[] i = {start, end};
-        return new InstantRange(i);
+        if (start.compareTo(end) > 0) {
+            Instant t = start;
+            start = end;
+            end = t;
+        }
+        InstantRange result = new InstantRange(start.getEpochSecond(), start.getNano(), end.getEpochSecond(), end.getNano());
+        result.start = start; // seed the cache with the given Instants
+        result.end = end;
+        return result;
+    }
+
+    /**
+     * Factory from the primitive parts, without creating Instants. Like
+     * {@link Instant#ofEpochSecond(long, long)} the nano adjustments may be
+     * outside 0 to 999,999,999 and are normalized.
+     *
+     * @param startSecond epoch second of start
+     * @param startNanoAdjustment nanos to add to startSecond
+     * @param endSecond epoch second of end
+     * @param endNanoAdjustment nanos to add to endSecond
+     * @return the range
+     * @throws DateTimeException when a boundary is outside the Instant range
+     */
+    public static InstantRange ofEpochSecond(long startSecond, long startNanoAdjustment,
+            long endSecond, long endNanoAdjustment) {
+        long s1 = checkSecond(Math.addExact(startSecond, Math.floorDiv(startNanoAdjustment, NANOS_PER_SECOND)));
+        int n1 = (int) Math.floorMod(startNanoAdjustment, NANOS_PER_SECOND);
+        long s2 = checkSecond(Math.addExact(endSecond, Math.floorDiv(endNanoAdjustment, NANOS_PER_SECOND)));
+        int n2 = (int) Math.floorMod(endNanoAdjustment, NANOS_PER_SECOND);
+        if (compare(s1, n1, s2, n2) > 0) {
+            return new InstantRange(s2, n2, s1, n1);
+        }
+        return new InstantRange(s1, n1, s2, n2);
+    }
+
+    private static long checkSecond(long second) {
+        if (second < MIN_SECOND || second > MAX_SECOND) {
+            throw new DateTimeException("Instant exceeds minimum or maximum instant");
+        }
+        return second;
+    }
+
+    private static int compare(long s1, int n1, long s2, int n2) {
+        int c = Long.compare(s1, s2);
+        return c != 0 ? c : Integer.compare(n1, n2);
+    }
+
+    private static long nanosBetween(long s1, int n1, long s2, int n2) {
+        return Math.addExact(Math.multiplyExact(s2 - s1, NANOS_PER_SECOND), n2 - n1);
+    }
+
+    /**
+     * Same as {@link Instant#hashCode()}.
+     */
+    private static int instantHash(long second, int nano) {
+        return ((int) (second ^ (second >>> 32))) + 51 * nano;
+    }
+
+    /**
+     * Serialize through the compact {@link SerializedRange} proxy.
+     *
+     * @return the proxy
+     */
+    private Object writeReplace() {
+        return new SerializedRange(this);
+    }
+
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("serialization proxy required");
     }
 }
@@ -0,0 +1,337 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+
+/**
+ * Immutable, memory mapped file of instant ranges.
+ *
+ * <p>
+ * The file is written once with {@link #write write} and opened with
+ * {@link #open open}, which only maps the file; queries read the mapped pages
+ * directly, so there is no load step and the operating system shares the page
+ * cache between all processes that open the same file.</p>
+ *
+ * <p>
+ * File layout, all numbers big endian:</p>
+ * <pre>
+ * header  int magic, int version, long count                   16 bytes
+ * record  long startSecond, int startNano,
+ *         long endSecond,   int endNano,
+ *         long maxEndSecond, int maxEndNano                    36 bytes
+ * </pre>
+ * <p>
+ * The records are sorted by start, then end, and are read as the implicit
+ * balanced binary tree of {@link IntervalIndex}: the root of the slice
+ * [lo,hi) is the record in the middle. maxEnd is the largest end in the
+ * subtree of the record, so a query skips every subtree that ends before the
+ * query starts and stops where records start after the query ends. Point and
+ * overlap queries read O(log N + K) records for K results.</p>
+ */
+public final class InstantRangeFile implements Closeable {
+
+    private static final int MAGIC = 0x524e4746; // "RNGF"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_SIZE = 36;
+    private static final int END_OFFSET = 12;
+    private static final int MAX_END_OFFSET = 24;
+    private static final long RECORDS_PER_SEGMENT = Integer.MAX_VALUE
+            / RECORD_SIZE;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final long size;
+
+    private InstantRangeFile( FileChannel channel, MappedByteBuffer[] segments,
+            long size ) {
+        this.channel = channel;
+        this.segments = segments;
+        this.size = size;
+    }
+
+    /**
+     * Write the ranges to a new file, replacing an existing one.
+     *
+     * @param path of the file
+     * @param ranges to store, in any order
+     * @throws IOException on write failure
+     */
+    public static void write( Path path,
+            Collection<? extends Range<?, Instant, ?>> ranges ) throws IOException {
+        List<Range<?, Instant, ?>> sorted = new ArrayList<>( ranges );
+        sorted.sort( Comparator.<Range<?, Instant, ?>, Instant>comparing( Range::start )
+                .thenComparing( Range::end ) );
+        try ( FileChannel out = FileChannel.open( path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE ) ) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect( RECORD_SIZE * 2048 );
+            buffer.putInt( MAGIC ).putInt( VERSION ).putLong( sorted.size() );
+            Instant[] maxEnd = new Instant[ sorted.size() ];
+            augment( sorted, maxEnd, 0, maxEnd.length );
+            for ( int i = 0; i < maxEnd.length; i++ ) {
+                Range<?, Instant, ?> r = sorted.get( i );
+                if ( buffer.remaining() < RECORD_SIZE ) {
+                    drain( buffer, out );
+                }
+                put( buffer, r.start() );
+                put( buffer, r.end() );
+                put( buffer, maxEnd[ i ] );
+            }
+            drain( buffer, out );
+        }
+    }
+
+    /**
+     * Compute the max end of the subtree for slice [lo,hi).
+     *
+     * @return the max end of the subtree or null for an empty slice
+     */
+    private static Instant augment( List<Range<?, Instant, ?>> sorted,
+            Instant[] maxEnd, int lo, int hi ) {
+        if ( lo >= hi ) {
+            return null;
+        }
+        int mid = ( lo + hi ) >>> 1;
+        Instant max = sorted.get( mid ).end();
+        Instant left = augment( sorted, maxEnd, lo, mid );
+        Instant right = augment( sorted, maxEnd, mid + 1, hi );
+        if ( left != null ) {
+            max = Range.max( max, left );
+        }
+        if ( right != null ) {
+            max = Range.max( max, right );
+        }
+        maxEnd[ mid ] = max;
+        return max;
+    }
+
+    private static void put( ByteBuffer buffer, Instant instant ) {
+        buffer.putLong( instant.getEpochSecond() ).putInt( instant.getNano() );
+    }
+
+    private static void drain( ByteBuffer buffer, FileChannel out ) throws IOException {
+        buffer.flip();
+        while ( buffer.hasRemaining() ) {
+            out.write( buffer );
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Map an existing file.
+     *
+     * @param path of the file
+     * @return the opened file
+     * @throws IOException when the file cannot be read or is not a range file
+     */
+    public static InstantRangeFile open( Path path ) throws IOException {
+        FileChannel channel = FileChannel.open( path, StandardOpenOption.READ );
+        try {
+            ByteBuffer header = ByteBuffer.allocate( HEADER_SIZE );
+            while ( header.hasRemaining() ) {
+                if ( channel.read( header, header.position() ) < 0 ) {
+                    throw new IOException( path + " is too short for a range file" );
+                }
+            }
+            header.flip();
+            if ( header.getInt() != MAGIC || header.getInt() != VERSION ) {
+                throw new IOException( path + " is not a range file of version "
+                        + VERSION );
+            }
+            long count = header.getLong();
+            if ( count < 0 || channel.size() != HEADER_SIZE + count * RECORD_SIZE ) {
+                throw new IOException( path + " is truncated or corrupt" );
+            }
+            int segmentCount = (int) ( ( count + RECORDS_PER_SEGMENT - 1 )
+                    / RECORDS_PER_SEGMENT );
+            MappedByteBuffer[] segments = new MappedByteBuffer[ segmentCount ];
+            for ( int s = 0; s < segmentCount; s++ ) {
+                long first = s * RECORDS_PER_SEGMENT;
+                long records = Math.min( RECORDS_PER_SEGMENT, count - first );
+                segments[ s ] = channel.map( FileChannel.MapMode.READ_ONLY,
+                        HEADER_SIZE + first * RECORD_SIZE, records * RECORD_SIZE );
+            }
+            return new InstantRangeFile( channel, segments, count );
+        } catch ( IOException | RuntimeException e ) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * The number of ranges in the file.
+     *
+     * @return the size
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Read the range at index, in start order.
+     *
+     * @param index of the record
+     * @return the range
+     */
+    public InstantRange get( long index ) {
+        if ( index < 0 || index >= size ) {
+            throw new IndexOutOfBoundsException( "index " + index
+                    + " out of bounds for size " + size );
+        }
+        ByteBuffer segment = segments[ (int) ( index / RECORDS_PER_SEGMENT ) ];
+        int offset = (int) ( index % RECORDS_PER_SEGMENT ) * RECORD_SIZE;
+        return InstantRange.ofEpochSecond( segment.getLong( offset ),
+                segment.getInt( offset + 8 ), segment.getLong( offset + END_OFFSET ),
+                segment.getInt( offset + END_OFFSET + 8 ) );
+    }
+
+    /**
+     * Is the point contained in any of the ranges. Stops at the first range
+     * found.
+     *
+     * @param point to test
+     * @return true if some range contains point
+     */
+    public boolean contains( Instant point ) {
+        long sec = point.getEpochSecond();
+        int nano = point.getNano();
+        return !visit( 0, size, sec, nano, sec, nano, true, i -> false, null );
+    }
+
+    /**
+     * Visit the ranges that contain point, in start order.
+     *
+     * @param point to test
+     * @param action applied to every containing range
+     */
+    public void forEachContaining( Instant point, Consumer<? super InstantRange> action ) {
+        long sec = point.getEpochSecond();
+        int nano = point.getNano();
+        visit( 0, size, sec, nano, sec, nano, true, report( action ), null );
+    }
+
+    /**
+     * Visit the ranges that overlap other, in start order.
+     *
+     * @param other to test
+     * @param action applied to every overlapping range
+     */
+    public void forEachOverlapping( Range<?, Instant, ?> other,
+            Consumer<? super InstantRange> action ) {
+        Instant from = other.start();
+        Instant to = other.end();
+        if ( from.compareTo( to ) >= 0 ) {
+            return;
+        }
+        visit( 0, size, from.getEpochSecond(), from.getNano(), to.getEpochSecond(),
+                to.getNano(), false, report( action ), null );
+    }
+
+    /**
+     * Collect the ranges that contain point.
+     *
+     * @param point to test
+     * @return the ranges in start order
+     */
+    public List<InstantRange> containing( Instant point ) {
+        List<InstantRange> result = new ArrayList<>();
+        forEachContaining( point, result::add );
+        return result;
+    }
+
+    /**
+     * Collect the ranges that overlap other.
+     *
+     * @param other to test
+     * @return the ranges in start order
+     */
+    public List<InstantRange> overlapping( Range<?, Instant, ?> other ) {
+        List<InstantRange> result = new ArrayList<>();
+        forEachOverlapping( other, result::add );
+        return result;
+    }
+
+    /**
+     * Close the channel. The mapping itself is released by the garbage
+     * collector.
+     *
+     * @throws IOException from the channel
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private LongPredicate report( Consumer<? super InstantRange> action ) {
+        return i -> {
+            action.accept( get( i ) );
+            return true;
+        };
+    }
+
+    /**
+     * The number of records a stabbing query for point reads, to check the
+     * pruning.
+     */
+    long recordsRead( Instant point ) {
+        long sec = point.getEpochSecond();
+        int nano = point.getNano();
+        long[] count = { 0 };
+        visit( 0, size, sec, nano, sec, nano, true, i -> true, count );
+        return count[ 0 ];
+    }
+
+    /**
+     * In order walk of slice [lo,hi), passing the indices of the records with
+     * end &gt; from and start &lt; to (or start &le; to when inclusive) to
+     * visitor, until it returns false.
+     *
+     * @return false when the visitor stopped the walk
+     */
+    private boolean visit( long lo, long hi, long fromSec, int fromNano,
+            long toSec, int toNano, boolean inclusive, LongPredicate visitor,
+            long[] read ) {
+        while ( lo < hi ) {
+            long mid = ( lo + hi ) >>> 1;
+            if ( read != null ) {
+                read[ 0 ]++;
+            }
+            if ( compare( mid, MAX_END_OFFSET, fromSec, fromNano ) <= 0 ) {
+                return true; // everything in this subtree ends too early
+            }
+            if ( !visit( lo, mid, fromSec, fromNano, toSec, toNano, inclusive,
+                    visitor, read ) ) {
+                return false;
+            }
+            int c = compare( mid, 0, toSec, toNano );
+            if ( c > 0 || ( c == 0 && !inclusive ) ) {
+                return true; // this record and its right subtree start too late
+            }
+            if ( compare( mid, END_OFFSET, fromSec, fromNano ) > 0
+                    && !visitor.test( mid ) ) {
+                return false;
+            }
+            lo = mid + 1;
+        }
+        return true;
+    }
+
+    private int compare( long index, int field, long sec, int nano ) {
+        ByteBuffer segment = segments[ (int) ( index / RECORDS_PER_SEGMENT ) ];
+        int offset = (int) ( index % RECORDS_PER_SEGMENT ) * RECORD_SIZE + field;
+        int c = Long.compare( segment.getLong( offset ), sec );
+        return c != 0 ? c : Integer.compare( segment.getInt( offset + 8 ), nano );
+    }
+}
@@ -0,0 +1,281 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * Integer range backed by primitive {@code int} boundaries.
+ *
+ * <p>
+ * Where {@link IntegerRange} stores boxed boundaries and funnels every
+ * comparison through {@link Comparable#compareTo}, this class keeps plain
+ * {@code int} fields and overrides the default methods of {@link Range} with
+ * primitive arithmetic. The generic API still works, so an {@code IntRange}
+ * can be used anywhere a {@code Range} is expected; boxing only happens when
+ * {@link #start()}, {@link #end()} or {@link #length()} are called.</p>
+ *
+ * <p>
+ * The primitive overloads {@link #contains(int)}, {@link #overlapLength},
+ * {@link #startInt()}, {@link #endInt()} and {@link #lengthInt()} never
+ * allocate.</p>
+ */
+public final class IntRange implements Range<IntRange, Integer, Integer> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final BiFunction<Integer, Integer, Integer> METER
+            = ( a, b ) -> b - a;
+
+    private final int start;
+    private final int end;
+
+    private IntRange( int start, int end ) {
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public Integer start() {
+        return this.start;
+    }
+
+    @Override
+    public Integer end() {
+        return this.end;
+    }
+
+    /**
+     * Primitive start.
+     *
+     * @return start
+     */
+    public int startInt() {
+        return this.start;
+    }
+
+    /**
+     * Primitive end.
+     *
+     * @return end
+     */
+    public int endInt() {
+        return this.end;
+    }
+
+    /**
+     * Primitive length.
+     *
+     * @return end - start
+     */
+    public int lengthInt() {
+        return this.end - this.start;
+    }
+
+    @Override
+    public BiFunction<Integer, Integer, Integer> meter() {
+        return METER;
+    }
+
+    @Override
+    public IntRange between( Integer start, Integer end ) {
+        return of( start.intValue(), end.intValue() );
+    }
+
+    @Override
+    public Integer zero() {
+        return 0;
+    }
+
+    /**
+     * Is a point contained in this range.
+     *
+     * @param point the point
+     * @return true is point not before start and not after end.
+     */
+    public boolean contains( int point ) {
+        return this.start <= point && point < this.end;
+    }
+
+    @Override
+    public boolean contains( Integer point ) {
+        return contains( point.intValue() );
+    }
+
+    @Override
+    public boolean contains( IntRange other ) {
+        return this.start <= other.start && this.end >= other.end;
+    }
+
+    @Override
+    public boolean overlaps( IntRange other ) {
+        return Math.min( this.end, other.end ) > Math.max( this.start,
+                other.start );
+    }
+
+    @Override
+    public boolean meets( IntRange other ) {
+        return Math.max( this.start, other.start ) == Math.min( this.end,
+                other.end );
+    }
+
+    @Override
+    public boolean meetsOrOverlaps( IntRange other ) {
+        return Math.min( this.end, other.end ) >= Math.max( this.start,
+                other.start );
+    }
+
+    /**
+     * Primitive variant of {@link #overlap(IntRange)}.
+     *
+     * @param other range
+     * @return the length of the overlap, 0 when there is none
+     */
+    public int overlapLength( IntRange other ) {
+        int firstEnd = Math.min( this.end, other.end );
+        int secondStart = Math.max( this.start, other.start );
+        return firstEnd > secondStart ? firstEnd - secondStart : 0;
+    }
+
+    @Override
+    public Integer overlap( IntRange other ) {
+        return overlapLength( other );
+    }
+
+    @Override
+    public IntRange joinWith( IntRange other ) throws IllegalArgumentException {
+        RangeEvents.Join event = new RangeEvents.Join();
+        event.begin();
+        checkMeetsOrOverlaps( other );
+        IntRange result = of( Math.min( this.start, other.start ), Math.max(
+                this.end, other.end ) );
+        event.report( this );
+        return result;
+    }
+
+    @Override
+    public IntRange tryJoinWith( IntRange other ) {
+        if ( !meetsOrOverlaps( other ) ) {
+            return null;
+        }
+        return of( Math.min( this.start, other.start ), Math.max( this.end,
+                other.end ) );
+    }
+
+    @Override
+    public Optional<IntRange> intersectWith( IntRange other ) {
+        RangeEvents.Intersect event = new RangeEvents.Intersect();
+        event.begin();
+        Optional<IntRange> result = overlaps( other )
+                ? Optional.of( of( Math.max( this.start, other.start ), Math
+                        .min( this.end, other.end ) ) )
+                : Optional.empty();
+        event.report( this );
+        return result;
+    }
+
+    @Override
+    public int punchThrough( IntRange punch, Consumer<? super IntRange> sink ) {
+        RangeEvents.PunchThrough event = new RangeEvents.PunchThrough();
+        event.begin();
+        int result = punchParts( punch, sink );
+        event.report( this );
+        return result;
+    }
+
+    private int punchParts( IntRange punch, Consumer<? super IntRange> sink ) {
+        if ( !this.contains( punch ) ) {
+            sink.accept( this );
+            return 1;
+        }
+        int count = 0;
+        if ( this.start < punch.start ) {
+            sink.accept( of( this.start, punch.start ) );
+            count++;
+        }
+        sink.accept( punch );
+        count++;
+        if ( punch.end < this.end ) {
+            sink.accept( of( punch.end, this.end ) );
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public int compareTo( IntRange other ) {
+        return Integer.compare( this.start, other.start );
+    }
+
+    @Override
+    public int hashCode() {
+        // same value as rangeHashCode, computed without boxing
+        return 31 * ( 31 + this.start ) + this.end;
+    }
+
+    @Override
+    public boolean equals( Object obj ) {
+        if ( this == obj ) {
+            return true;
+        }
+        if ( !( obj instanceof IntRange ) ) {
+            return false;
+        }
+        IntRange other = (IntRange) obj;
+        return this.start == other.start && this.end == other.end;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + this.start + "," + this.end + ")";
+    }
+
+    /**
+     * Convert to the boxed flavour.
+     *
+     * @return an IntegerRange with the same boundaries
+     */
+    public IntegerRange toIntegerRange() {
+        return IntegerRange.of( this.start, this.end );
+    }
+
+    /**
+     * Convenience factory. The boundaries are put in natural order.
+     *
+     * @param start of range
+     * @param end of range
+     * @return the range
+     */
+    public static IntRange of( int start, int end ) {
+        return start <= end ? new IntRange( start, end ) : new IntRange( end,
+                start );
+    }
+
+    /**
+     * Copy any integer based range into an IntRange.
+     *
+     * @param range to copy
+     * @return the range with the same boundaries
+     */
+    public static IntRange from( Range<?, Integer, ?> range ) {
+        if ( range instanceof IntRange ) {
+            return (IntRange) range;
+        }
+        return of( range.start(), range.end() );
+    }
+
+    /**
+     * Serialize through the compact {@link SerializedRange} proxy.
+     *
+     * @return the proxy
+     */
+    private Object writeReplace() {
+        return new SerializedRange( this );
+    }
+
+    private void readObject( ObjectInputStream in ) throws InvalidObjectException {
+        throw new InvalidObjectException( "serialization proxy required" );
+    }
+}
@@ -0,0 +1,334 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * Hash map with int ranges as keys, stored inline in a {@code long[]}.
+ *
+ * <p>
+ * A key is packed into one long, start in the high and end in the low half,
+ * so there are no key objects, no entry nodes and no boxing; looking up a
+ * key given as two ints allocates nothing. The table uses open addressing
+ * with linear probing and is kept at most half full. The hash is the packed
+ * key multiplied by the 64 bit golden ratio, of which the top bits select
+ * the slot. Removal shifts the following entries of the probe sequence back,
+ * so there are no tombstones and lookups stay short after many removals.</p>
+ *
+ * <p>
+ * Keys are normalized like {@link IntRange#of}, so (5,3) and (3,5) are the
+ * same key. Null values are not allowed, get returns null for a missing key.
+ * This class is not thread safe.</p>
+ *
+ * @param <V> value type
+ */
+public final class IntRangeHashMap<V> {
+
+    /**
+     * Marks a free slot. Start 1 and end 0 is no normalized range.
+     */
+    static final long FREE = 1L << 32;
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+    private static final int MIN_CAPACITY = 16;
+
+    private final boolean withValues;
+    private long[] keys;
+    private Object[] values;
+    private int shift;
+    private int size;
+
+    /**
+     * Create an empty map.
+     */
+    public IntRangeHashMap() {
+        this( MIN_CAPACITY / 2 );
+    }
+
+    /**
+     * Create an empty map that holds expectedSize keys without growing.
+     *
+     * @param expectedSize number of keys expected
+     */
+    public IntRangeHashMap( int expectedSize ) {
+        this( expectedSize, true );
+    }
+
+    /**
+     * Create a map, without the values array for use as a set.
+     */
+    IntRangeHashMap( int expectedSize, boolean withValues ) {
+        if ( expectedSize < 0 ) {
+            throw new IllegalArgumentException( "negative size " + expectedSize );
+        }
+        this.withValues = withValues;
+        allocate( capacityFor( expectedSize ) );
+    }
+
+    private static int capacityFor( int expectedSize ) {
+        long wanted = Math.max( MIN_CAPACITY, 2L * expectedSize );
+        if ( wanted > 1 << 30 ) {
+            throw new IllegalArgumentException( "too large " + expectedSize );
+        }
+        return Integer.highestOneBit( (int) wanted - 1 ) << 1;
+    }
+
+    private void allocate( int capacity ) {
+        keys = new long[ capacity ];
+        Arrays.fill( keys, FREE );
+        values = withValues ? new Object[ capacity ] : null;
+        shift = 64 - Integer.numberOfTrailingZeros( capacity );
+    }
+
+    static long pack( int start, int end ) {
+        return start <= end
+                ? ( (long) start << 32 ) | ( end & 0xFFFF_FFFFL )
+                : ( (long) end << 32 ) | ( start & 0xFFFF_FFFFL );
+    }
+
+    static IntRange unpack( long key ) {
+        return IntRange.of( (int) ( key >>> 32 ), (int) key );
+    }
+
+    private int home( long key ) {
+        return (int) ( ( key * GOLDEN ) >>> shift );
+    }
+
+    /**
+     * Slot of key, or the complement of the free slot where it would go.
+     */
+    int find( long key ) {
+        int mask = keys.length - 1;
+        int i = home( key );
+        long k;
+        while ( ( k = keys[ i ] ) != FREE ) {
+            if ( k == key ) {
+                return i;
+            }
+            i = ( i + 1 ) & mask;
+        }
+        return ~i;
+    }
+
+    /**
+     * Store key at the free slot ~found, growing when half full.
+     */
+    void insertAt( int found, long key, Object value ) {
+        int i = ~found;
+        keys[ i ] = key;
+        if ( withValues ) {
+            values[ i ] = value;
+        }
+        if ( ++size > keys.length >>> 1 ) {
+            rehash( keys.length << 1 );
+        }
+    }
+
+    private void rehash( int capacity ) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate( capacity );
+        for ( int i = 0; i < oldKeys.length; i++ ) {
+            if ( oldKeys[ i ] != FREE ) {
+                int slot = ~find( oldKeys[ i ] );
+                keys[ slot ] = oldKeys[ i ];
+                if ( withValues ) {
+                    values[ slot ] = oldValues[ i ];
+                }
+            }
+        }
+    }
+
+    /**
+     * Empty slot i and move later entries of its probe sequence back into
+     * the hole, as long as that does not put them before their home slot.
+     */
+    void removeAt( int i ) {
+        int mask = keys.length - 1;
+        int hole = i;
+        int j = i;
+        while ( true ) {
+            j = ( j + 1 ) & mask;
+            long k = keys[ j ];
+            if ( k == FREE ) {
+                break;
+            }
+            if ( ( ( j - home( k ) ) & mask ) >= ( ( j - hole ) & mask ) ) {
+                keys[ hole ] = k;
+                if ( withValues ) {
+                    values[ hole ] = values[ j ];
+                }
+                hole = j;
+            }
+        }
+        keys[ hole ] = FREE;
+        if ( withValues ) {
+            values[ hole ] = null;
+        }
+        size--;
+    }
+
+    /**
+     * Map the range (start,end) to value.
+     *
+     * @param start of range
+     * @param end of range
+     * @param value to store, not null
+     * @return the previous value or null
+     */
+    @SuppressWarnings( "unchecked" )
+    public V put( int start, int end, V value ) {
+        if ( value == null ) {
+            throw new NullPointerException( "value" );
+        }
+        long key = pack( start, end );
+        int i = find( key );
+        if ( i >= 0 ) {
+            V old = (V) values[ i ];
+            values[ i ] = value;
+            return old;
+        }
+        insertAt( i, key, value );
+        return null;
+    }
+
+    /**
+     * Map range to value.
+     *
+     * @param range key
+     * @param value to store, not null
+     * @return the previous value or null
+     */
+    public V put( Range<?, Integer, ?> range, V value ) {
+        return put( range.start(), range.end(), value );
+    }
+
+    /**
+     * Look up the value of range (start,end).
+     *
+     * @param start of range
+     * @param end of range
+     * @return the value or null
+     */
+    @SuppressWarnings( "unchecked" )
+    public V get( int start, int end ) {
+        int i = find( pack( start, end ) );
+        return i >= 0 ? (V) values[ i ] : null;
+    }
+
+    /**
+     * Look up the value of range.
+     *
+     * @param range key
+     * @return the value or null
+     */
+    public V get( Range<?, Integer, ?> range ) {
+        return get( range.start(), range.end() );
+    }
+
+    /**
+     * Is (start,end) a key.
+     *
+     * @param start of range
+     * @param end of range
+     * @return true when mapped
+     */
+    public boolean containsKey( int start, int end ) {
+        return find( pack( start, end ) ) >= 0;
+    }
+
+    /**
+     * Is range a key.
+     *
+     * @param range key
+     * @return true when mapped
+     */
+    public boolean containsKey( Range<?, Integer, ?> range ) {
+        return containsKey( range.start(), range.end() );
+    }
+
+    /**
+     * Remove the mapping of (start,end).
+     *
+     * @param start of range
+     * @param end of range
+     * @return the removed value or null
+     */
+    @SuppressWarnings( "unchecked" )
+    public V remove( int start, int end ) {
+        int i = find( pack( start, end ) );
+        if ( i < 0 ) {
+            return null;
+        }
+        V old = (V) values[ i ];
+        removeAt( i );
+        return old;
+    }
+
+    /**
+     * Remove the mapping of range.
+     *
+     * @param range key
+     * @return the removed value or null
+     */
+    public V remove( Range<?, Integer, ?> range ) {
+        return remove( range.start(), range.end() );
+    }
+
+    /**
+     * The number of keys.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Is this map empty.
+     *
+     * @return true when there are no keys
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove all mappings. The table keeps its capacity.
+     */
+    public void clear() {
+        Arrays.fill( keys, FREE );
+        if ( withValues ) {
+            Arrays.fill( values, null );
+        }
+        size = 0;
+    }
+
+    /**
+     * Visit all mappings, in no particular order.
+     *
+     * @param action receives key and value
+     */
+    @SuppressWarnings( "unchecked" )
+    public void forEach( BiConsumer<? super IntRange, ? super V> action ) {
+        for ( int i = 0; i < keys.length; i++ ) {
+            if ( keys[ i ] != FREE ) {
+                action.accept( unpack( keys[ i ] ), withValues ? (V) values[ i ] : null );
+            }
+        }
+    }
+
+    /**
+     * The packed keys, for iteration by the set.
+     */
+    long[] table() {
+        return keys;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder( "{" );
+        forEach( ( k, v ) -> result.append( result.length() > 1 ? ", " : "" )
+                .append( k ).append( '=' ).append( v ) );
+        return result.append( '}' ).toString();
+    }
+}
@@ -0,0 +1,182 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Hash set of int ranges, stored inline in a {@code long[]}.
+ *
+ * <p>
+ * Backed by an {@link IntRangeHashMap} without its values array, in the way
+ * {@link java.util.HashSet} is backed by a HashMap. Adding or testing a range
+ * given as two ints allocates nothing, which makes this set suited for
+ * deduplicating large batches of ranges. Ranges are normalized like
+ * {@link IntRange#of}.</p>
+ *
+ * <p>
+ * This class is not thread safe.</p>
+ */
+public final class IntRangeHashSet implements Iterable<IntRange> {
+
+    private final IntRangeHashMap<Void> map;
+
+    /**
+     * Create an empty set.
+     */
+    public IntRangeHashSet() {
+        this( 8 );
+    }
+
+    /**
+     * Create an empty set that holds expectedSize ranges without growing.
+     *
+     * @param expectedSize number of ranges expected
+     */
+    public IntRangeHashSet( int expectedSize ) {
+        map = new IntRangeHashMap<>( expectedSize, false );
+    }
+
+    /**
+     * Add range (start,end).
+     *
+     * @param start of range
+     * @param end of range
+     * @return true if the range was not in the set yet
+     */
+    public boolean add( int start, int end ) {
+        long key = IntRangeHashMap.pack( start, end );
+        int i = map.find( key );
+        if ( i >= 0 ) {
+            return false;
+        }
+        map.insertAt( i, key, null );
+        return true;
+    }
+
+    /**
+     * Add range.
+     *
+     * @param range to add
+     * @return true if the range was not in the set yet
+     */
+    public boolean add( Range<?, Integer, ?> range ) {
+        return add( range.start(), range.end() );
+    }
+
+    /**
+     * Is range (start,end) in the set.
+     *
+     * @param start of range
+     * @param end of range
+     * @return true if contained
+     */
+    public boolean contains( int start, int end ) {
+        return map.containsKey( start, end );
+    }
+
+    /**
+     * Is range in the set.
+     *
+     * @param range to test
+     * @return true if contained
+     */
+    public boolean contains( Range<?, Integer, ?> range ) {
+        return map.containsKey( range.start(), range.end() );
+    }
+
+    /**
+     * Remove range (start,end).
+     *
+     * @param start of range
+     * @param end of range
+     * @return true if the range was in the set
+     */
+    public boolean remove( int start, int end ) {
+        int i = map.find( IntRangeHashMap.pack( start, end ) );
+        if ( i < 0 ) {
+            return false;
+        }
+        map.removeAt( i );
+        return true;
+    }
+
+    /**
+     * Remove range.
+     *
+     * @param range to remove
+     * @return true if the range was in the set
+     */
+    public boolean remove( Range<?, Integer, ?> range ) {
+        return remove( range.start(), range.end() );
+    }
+
+    /**
+     * The number of ranges.
+     *
+     * @return the size
+     */
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * Is this set empty.
+     *
+     * @return true when there are no ranges
+     */
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    /**
+     * Remove all ranges. The table keeps its capacity.
+     */
+    public void clear() {
+        map.clear();
+    }
+
+    /**
+     * The ranges in no particular order. The set must not be modified while
+     * iterating.
+     *
+     * @return the iterator
+     */
+    @Override
+    public Iterator<IntRange> iterator() {
+        long[] table = map.table();
+        return new Iterator<IntRange>() {
+            int next = advance( 0 );
+
+            private int advance( int from ) {
+                while ( from < table.length && table[ from ] == IntRangeHashMap.FREE ) {
+                    from++;
+                }
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next < table.length;
+            }
+
+            @Override
+            public IntRange next() {
+                if ( !hasNext() ) {
+                    throw new NoSuchElementException();
+                }
+                IntRange result = IntRangeHashMap.unpack( table[ next ] );
+                next = advance( next + 1 );
+                return result;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder( "[" );
+        for ( IntRange r : this ) {
+            result.append( result.length() > 1 ? ", " : "" ).append( r );
+        }
+        return result.append( ']' ).toString();
+    }
+}
@@ -1,5 +1,7 @@
 package nl.fontys.sebivenlo.ranges;
 
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
 import java.util.function.BiFunction;
 
 /**
@@ -10,12 +12,14 @@ import java.util.function.BiFunction;
  * @author Pieter van den Hombergh {@code pieter.van.den.hombergh@gmail.com}
  */
 public class IntegerRange implements Range<IntegerRange, Integer, Integer> {
+    private static final long serialVersionUID = 1L;
     private final Integer start;
     private final Integer end;
+    private transient int hash; // 0 until computed, like String
 
-    private IntegerRange(Integer[] i) {
-        this.start = Math.min(i[0], i[1]);
-        this.end = Math.max(i[0], i[1]);
+    private IntegerRange(Integer start, Integer end) {
+        this.start = start;
+        this.end = end;
     }
 
     @Override
@@ -43,7 +47,12 @@ public class IntegerRange implements Range<IntegerRange, Integer, Integer> {
     // of the interface or use the new java record type, finalized in Java 16.
     @Override
     public int hashCode() {
-        return rangeHashCode();
+        int h = hash;
+        if ( h == 0 ) {
+            h = rangeHashCode();
+            hash = h;
+        }
+        return h;
     }
 
     @Override
@@ -70,8 +79,20 @@ public class IntegerRange implements Range<IntegerRange, Integer, Integer> {
      * @return the range
      */
     public static IntegerRange of( Integer start, Integer end ) {
-        Integer[] i = {start, end};
-        return new IntegerRange(i);
+        return start <= end ? new IntegerRange( start, end )
+                : new IntegerRange( end, start );
     }
 
+    /**
+     * Serialize through the compact {@link SerializedRange} proxy.
+     *
+     * @return the proxy
+     */
+    private Object writeReplace() {
+        return new SerializedRange( this );
+    }
+
+    private void readObject( ObjectInputStream in ) throws InvalidObjectException {
+        throw new InvalidObjectException( "serialization proxy required" );
+    }
 }
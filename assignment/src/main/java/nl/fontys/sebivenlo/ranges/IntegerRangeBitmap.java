@@ -0,0 +1,773 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Compressed set of ints, filled and read as {@link IntegerRange} runs.
+ *
+ * <p>
+ * The layout follows the Roaring bitmap: the 32 bit domain is cut into chunks
+ * of 65536 values, keyed by the high 16 bits, and every non empty chunk is
+ * stored in the smallest of three containers:</p>
+ * <ul>
+ * <li>a sorted array of the low 16 bits, 2 bytes per value, for sparse
+ * chunks of at most 4096 values,</li>
+ * <li>a bitmap of 1024 longs, 8 KiB, for dense chunks,</li>
+ * <li>a list of runs, 4 bytes per run, for chunks made of few long
+ * stretches.</li>
+ * </ul>
+ * <p>
+ * To keep signed order, values are stored with the sign bit flipped, so the
+ * chunks of negative numbers come first. A lookup with {@link #contains(int)}
+ * is a binary search over the chunk keys and one probe in the container.
+ * Adding keeps a container in its form until it outgrows it; {@link #optimize}
+ * converts every container to its smallest form, and the results of
+ * {@link #and and}, {@link #or or} and {@link #andNot andNot}, which are
+ * computed word by word on bitmaps, are always optimized.</p>
+ *
+ * <p>
+ * {@link #iterator()} and {@link #runs()} return the maximal runs, joined
+ * across chunk boundaries. Since {@link IntegerRange} ends are exclusive,
+ * {@link Integer#MAX_VALUE} cannot be part of the set.</p>
+ *
+ * <p>
+ * This class is not thread safe.</p>
+ */
+public final class IntegerRangeBitmap implements Iterable<IntegerRange> {
+
+    private static final int CHUNK = 1 << 16;
+    private static final int WORDS = CHUNK / 64;
+    private static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_BYTES = WORDS * 8;
+
+    private char[] keys = new char[ 4 ];
+    private Container[] containers = new Container[ 4 ];
+    private int size;
+
+    /**
+     * Create an empty set.
+     */
+    public IntegerRangeBitmap() {
+    }
+
+    /**
+     * Create a set from the given ranges, which may meet or overlap.
+     *
+     * @param source ranges to add
+     * @return the set
+     */
+    public static IntegerRangeBitmap of( Iterable<? extends Range<?, Integer, ?>> source ) {
+        IntegerRangeBitmap result = new IntegerRangeBitmap();
+        for ( Range<?, Integer, ?> r : source ) {
+            result.add( r );
+        }
+        return result;
+    }
+
+    /**
+     * Add all values of range.
+     *
+     * @param range to add
+     */
+    public void add( Range<?, Integer, ?> range ) {
+        int start = range.start();
+        int end = range.end();
+        if ( start < end ) {
+            addUnsigned( unsigned( start ), unsigned( start ) + ( (long) end - start ) );
+        }
+    }
+
+    /**
+     * Add a single value.
+     *
+     * @param value to add
+     * @throws IllegalArgumentException for {@link Integer#MAX_VALUE}, which
+     * cannot be returned as part of an IntegerRange
+     */
+    public void add( int value ) {
+        if ( value == Integer.MAX_VALUE ) {
+            throw new IllegalArgumentException( "Integer.MAX_VALUE cannot be"
+                    + " stored, it is no valid range start" );
+        }
+        addUnsigned( unsigned( value ), unsigned( value ) + 1 );
+    }
+
+    private void addUnsigned( long from, long to ) {
+        while ( from < to ) {
+            char key = (char) ( from >>> 16 );
+            long base = (long) key << 16;
+            int lo = (int) ( from - base );
+            int hi = (int) Math.min( CHUNK, to - base );
+            int i = indexOf( key );
+            if ( i >= 0 ) {
+                containers[ i ] = containers[ i ].add( lo, hi );
+            } else {
+                insert( -i - 1, key, RunContainer.of( lo, hi ) );
+            }
+            from = base + hi;
+        }
+    }
+
+    /**
+     * Is value part of this set.
+     *
+     * @param value to test
+     * @return true if contained
+     */
+    public boolean contains( int value ) {
+        long u = unsigned( value );
+        int i = indexOf( (char) ( u >>> 16 ) );
+        return i >= 0 && containers[ i ].contains( (int) ( u & 0xFFFF ) );
+    }
+
+    /**
+     * The number of values in this set.
+     *
+     * @return the cardinality
+     */
+    public long cardinality() {
+        long result = 0;
+        for ( int i = 0; i < size; i++ ) {
+            result += containers[ i ].cardinality();
+        }
+        return result;
+    }
+
+    /**
+     * Is this set empty.
+     *
+     * @return true when no value is contained
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove all values.
+     */
+    public void clear() {
+        Arrays.fill( containers, 0, size, null );
+        size = 0;
+    }
+
+    /**
+     * Estimate of the bytes taken by the stored values: the container
+     * payloads plus two bytes per chunk key.
+     *
+     * @return the size in bytes
+     */
+    public long sizeInBytes() {
+        long result = 2L * size;
+        for ( int i = 0; i < size; i++ ) {
+            result += containers[ i ].sizeInBytes();
+        }
+        return result;
+    }
+
+    /**
+     * Convert every container to the smallest of the three forms.
+     */
+    public void optimize() {
+        for ( int i = 0; i < size; i++ ) {
+            containers[ i ] = Container.fromWords( containers[ i ].words() );
+        }
+    }
+
+    /**
+     * Compute the values in both this and other.
+     *
+     * @param other set
+     * @return a new, optimized set
+     */
+    public IntegerRangeBitmap and( IntegerRangeBitmap other ) {
+        IntegerRangeBitmap result = new IntegerRangeBitmap();
+        int i = 0;
+        int j = 0;
+        while ( i < size && j < other.size ) {
+            if ( keys[ i ] < other.keys[ j ] ) {
+                i++;
+            } else if ( keys[ i ] > other.keys[ j ] ) {
+                j++;
+            } else {
+                long[] a = containers[ i ].words();
+                long[] b = other.containers[ j ].words();
+                for ( int k = 0; k < WORDS; k++ ) {
+                    a[ k ] &= b[ k ];
+                }
+                result.append( keys[ i ], Container.fromWords( a ) );
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Compute the values in this or other, or both.
+     *
+     * @param other set
+     * @return a new, optimized set
+     */
+    public IntegerRangeBitmap or( IntegerRangeBitmap other ) {
+        IntegerRangeBitmap result = new IntegerRangeBitmap();
+        int i = 0;
+        int j = 0;
+        while ( i < size || j < other.size ) {
+            if ( j == other.size || ( i < size && keys[ i ] < other.keys[ j ] ) ) {
+                result.append( keys[ i ], Container.fromWords( containers[ i ].words() ) );
+                i++;
+            } else if ( i == size || keys[ i ] > other.keys[ j ] ) {
+                result.append( other.keys[ j ], Container.fromWords(
+                        other.containers[ j ].words() ) );
+                j++;
+            } else {
+                long[] a = containers[ i ].words();
+                other.containers[ j ].orInto( a );
+                result.append( keys[ i ], Container.fromWords( a ) );
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Compute the values in this but not in other.
+     *
+     * @param other set
+     * @return a new, optimized set
+     */
+    public IntegerRangeBitmap andNot( IntegerRangeBitmap other ) {
+        IntegerRangeBitmap result = new IntegerRangeBitmap();
+        int j = 0;
+        for ( int i = 0; i < size; i++ ) {
+            while ( j < other.size && other.keys[ j ] < keys[ i ] ) {
+                j++;
+            }
+            long[] a = containers[ i ].words();
+            if ( j < other.size && other.keys[ j ] == keys[ i ] ) {
+                long[] b = other.containers[ j ].words();
+                for ( int k = 0; k < WORDS; k++ ) {
+                    a[ k ] &= ~b[ k ];
+                }
+            }
+            result.append( keys[ i ], Container.fromWords( a ) );
+        }
+        return result;
+    }
+
+    /**
+     * Visit the maximal runs of this set in ascending order.
+     *
+     * @param action applied to every run
+     */
+    public void forEachRun( Consumer<? super IntegerRange> action ) {
+        RunJoiner joiner = new RunJoiner( action );
+        for ( int i = 0; i < size; i++ ) {
+            joiner.base = (long) keys[ i ] << 16;
+            containers[ i ].forEachRun( joiner );
+        }
+        joiner.flush();
+    }
+
+    /**
+     * Snapshot of the maximal runs in ascending order.
+     *
+     * @return unmodifiable list of the runs
+     */
+    public List<IntegerRange> runs() {
+        List<IntegerRange> result = new ArrayList<>();
+        forEachRun( result::add );
+        return Collections.unmodifiableList( result );
+    }
+
+    /**
+     * The maximal runs in ascending order, taken from a snapshot.
+     *
+     * @return the iterator
+     */
+    @Override
+    public Iterator<IntegerRange> iterator() {
+        return runs().iterator();
+    }
+
+    @Override
+    public int hashCode() {
+        return runs().hashCode();
+    }
+
+    @Override
+    public boolean equals( Object obj ) {
+        if ( this == obj ) {
+            return true;
+        }
+        if ( !( obj instanceof IntegerRangeBitmap ) ) {
+            return false;
+        }
+        return runs().equals( ( (IntegerRangeBitmap) obj ).runs() );
+    }
+
+    @Override
+    public String toString() {
+        return runs().toString();
+    }
+
+    private static long unsigned( int value ) {
+        return ( value ^ Integer.MIN_VALUE ) & 0xFFFF_FFFFL;
+    }
+
+    private static int signed( long unsigned ) {
+        return (int) unsigned ^ Integer.MIN_VALUE;
+    }
+
+    private int indexOf( char key ) {
+        return Arrays.binarySearch( keys, 0, size, key );
+    }
+
+    private void insert( int index, char key, Container container ) {
+        if ( size == keys.length ) {
+            keys = Arrays.copyOf( keys, size * 2 );
+            containers = Arrays.copyOf( containers, size * 2 );
+        }
+        System.arraycopy( keys, index, keys, index + 1, size - index );
+        System.arraycopy( containers, index, containers, index + 1, size - index );
+        keys[ index ] = key;
+        containers[ index ] = container;
+        size++;
+    }
+
+    /**
+     * Append a container with a key above all others; null means empty.
+     */
+    private void append( char key, Container container ) {
+        if ( container != null ) {
+            insert( size, key, container );
+        }
+    }
+
+    /**
+     * Receives the runs of a container as [lo,hi) in the low 16 bits.
+     */
+    private interface RunVisitor {
+
+        void run( int lo, int hi );
+    }
+
+    /**
+     * Turns container runs into IntegerRanges, joining runs that continue
+     * in the next chunk.
+     */
+    private static final class RunJoiner implements RunVisitor {
+
+        private final Consumer<? super IntegerRange> action;
+        private long base;
+        private long start = -1;
+        private long end;
+
+        RunJoiner( Consumer<? super IntegerRange> action ) {
+            this.action = action;
+        }
+
+        @Override
+        public void run( int lo, int hi ) {
+            if ( start >= 0 && end == base + lo ) {
+                end = base + hi;
+                return;
+            }
+            flush();
+            start = base + lo;
+            end = base + hi;
+        }
+
+        void flush() {
+            if ( start >= 0 ) {
+                action.accept( IntegerRange.of( signed( start ), signed( end ) ) );
+                start = -1;
+            }
+        }
+    }
+
+    /**
+     * Set the bits [lo,hi) in words, hi &gt; lo.
+     */
+    private static void setBits( long[] words, int lo, int hi ) {
+        int first = lo >>> 6;
+        int last = ( hi - 1 ) >>> 6;
+        long firstMask = -1L << lo;
+        long lastMask = -1L >>> -hi;
+        if ( first == last ) {
+            words[ first ] |= firstMask & lastMask;
+            return;
+        }
+        words[ first ] |= firstMask;
+        Arrays.fill( words, first + 1, last, -1L );
+        words[ last ] |= lastMask;
+    }
+
+    /**
+     * The values of one chunk. add may return a different container when the
+     * values outgrow this one.
+     */
+    private abstract static class Container {
+
+        abstract Container add( int lo, int hi );
+
+        abstract boolean contains( int low );
+
+        abstract int cardinality();
+
+        abstract int sizeInBytes();
+
+        abstract void orInto( long[] words );
+
+        abstract void forEachRun( RunVisitor visitor );
+
+        /**
+         * A fresh bitmap of the values.
+         */
+        long[] words() {
+            long[] words = new long[ WORDS ];
+            orInto( words );
+            return words;
+        }
+
+        /**
+         * The smallest container holding the bits of words, null if there are
+         * none. Runs start at set bits whose lower neighbour is clear.
+         */
+        static Container fromWords( long[] words ) {
+            int card = 0;
+            int runs = 0;
+            long carry = 0;
+            for ( long w : words ) {
+                card += Long.bitCount( w );
+                runs += Long.bitCount( w & ~( ( w << 1 ) | carry ) );
+                carry = w >>> 63;
+            }
+            if ( card == 0 ) {
+                return null;
+            }
+            BitmapContainer bitmap = new BitmapContainer( words, card );
+            int arrayBytes = card <= ARRAY_MAX ? 2 * card : Integer.MAX_VALUE;
+            int runBytes = 4 * runs;
+            if ( runBytes < Math.min( arrayBytes, BITMAP_BYTES ) ) {
+                RunContainer result = new RunContainer( new char[ 2 * runs ], 0, 0 );
+                bitmap.forEachRun( result::append );
+                return result;
+            }
+            if ( arrayBytes <= BITMAP_BYTES ) {
+                return bitmap.toArray();
+            }
+            return bitmap;
+        }
+    }
+
+    /**
+     * Sorted low 16 bit values, for at most ARRAY_MAX of them.
+     */
+    private static final class ArrayContainer extends Container {
+
+        private char[] values;
+        private int card;
+
+        ArrayContainer( char[] values, int card ) {
+            this.values = values;
+            this.card = card;
+        }
+
+        @Override
+        Container add( int lo, int hi ) {
+            int from = lowerBound( lo );
+            int to = lowerBound( hi );
+            int n = hi - lo;
+            int newCard = card - ( to - from ) + n;
+            if ( newCard > ARRAY_MAX ) {
+                return new BitmapContainer( words(), card ).add( lo, hi );
+            }
+            char[] target = values;
+            if ( newCard > values.length ) {
+                target = Arrays.copyOf( values, Math.min( ARRAY_MAX,
+                        Math.max( newCard, 2 * values.length ) ) );
+            }
+            System.arraycopy( values, to, target, from + n, card - to );
+            for ( int i = 0; i < n; i++ ) {
+                target[ from + i ] = (char) ( lo + i );
+            }
+            values = target;
+            card = newCard;
+            return this;
+        }
+
+        private int lowerBound( int value ) {
+            int lo = 0;
+            int hi = card;
+            while ( lo < hi ) {
+                int mid = ( lo + hi ) >>> 1;
+                if ( values[ mid ] < value ) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        @Override
+        boolean contains( int low ) {
+            return Arrays.binarySearch( values, 0, card, (char) low ) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return card;
+        }
+
+        @Override
+        int sizeInBytes() {
+            return 2 * card;
+        }
+
+        @Override
+        void orInto( long[] words ) {
+            for ( int i = 0; i < card; i++ ) {
+                words[ values[ i ] >>> 6 ] |= 1L << values[ i ];
+            }
+        }
+
+        @Override
+        void forEachRun( RunVisitor visitor ) {
+            int i = 0;
+            while ( i < card ) {
+                int lo = values[ i ];
+                int hi = lo + 1;
+                while ( ++i < card && values[ i ] == hi ) {
+                    hi++;
+                }
+                visitor.run( lo, hi );
+            }
+        }
+    }
+
+    /**
+     * One bit per value of the chunk.
+     */
+    private static final class BitmapContainer extends Container {
+
+        private final long[] bits;
+        private int card;
+
+        BitmapContainer( long[] bits, int card ) {
+            this.bits = bits;
+            this.card = card;
+        }
+
+        @Override
+        Container add( int lo, int hi ) {
+            int first = lo >>> 6;
+            int last = ( hi - 1 ) >>> 6;
+            for ( int k = first; k <= last; k++ ) {
+                card -= Long.bitCount( bits[ k ] );
+            }
+            setBits( bits, lo, hi );
+            for ( int k = first; k <= last; k++ ) {
+                card += Long.bitCount( bits[ k ] );
+            }
+            return card == CHUNK ? RunContainer.of( 0, CHUNK ) : this;
+        }
+
+        @Override
+        boolean contains( int low ) {
+            return ( bits[ low >>> 6 ] & ( 1L << low ) ) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return card;
+        }
+
+        @Override
+        int sizeInBytes() {
+            return BITMAP_BYTES;
+        }
+
+        @Override
+        void orInto( long[] words ) {
+            for ( int k = 0; k < WORDS; k++ ) {
+                words[ k ] |= bits[ k ];
+            }
+        }
+
+        @Override
+        void forEachRun( RunVisitor visitor ) {
+            int lo = nextBit( 0, 0L );
+            while ( lo < CHUNK ) {
+                int hi = nextBit( lo, -1L );
+                visitor.run( lo, hi );
+                lo = hi < CHUNK ? nextBit( hi, 0L ) : CHUNK;
+            }
+        }
+
+        /**
+         * The first index at or after from whose bit differs from the bits
+         * of flip, CHUNK if there is none. A flip of 0 finds set bits, -1
+         * finds clear bits.
+         */
+        private int nextBit( int from, long flip ) {
+            int k = from >>> 6;
+            long w = ( bits[ k ] ^ flip ) & ( -1L << from );
+            while ( w == 0 ) {
+                if ( ++k == WORDS ) {
+                    return CHUNK;
+                }
+                w = bits[ k ] ^ flip;
+            }
+            return k * 64 + Long.numberOfTrailingZeros( w );
+        }
+
+        ArrayContainer toArray() {
+            char[] values = new char[ card ];
+            int n = 0;
+            for ( int k = 0; k < WORDS; k++ ) {
+                long w = bits[ k ];
+                while ( w != 0 ) {
+                    values[ n++ ] = (char) ( k * 64 + Long.numberOfTrailingZeros( w ) );
+                    w &= w - 1;
+                }
+            }
+            return new ArrayContainer( values, card );
+        }
+    }
+
+    /**
+     * Sorted, disjoint runs that do not meet, as pairs of start and length
+     * minus one, so a full chunk still fits a char.
+     */
+    private static final class RunContainer extends Container {
+
+        private char[] runs;
+        private int count;
+        private int card;
+
+        RunContainer( char[] runs, int count, int card ) {
+            this.runs = runs;
+            this.count = count;
+            this.card = card;
+        }
+
+        static RunContainer of( int lo, int hi ) {
+            return new RunContainer( new char[] { (char) lo, (char) ( hi - lo - 1 ) }, 1,
+                    hi - lo );
+        }
+
+        private int start( int i ) {
+            return runs[ 2 * i ];
+        }
+
+        private int end( int i ) {
+            return runs[ 2 * i ] + runs[ 2 * i + 1 ] + 1;
+        }
+
+        /**
+         * Add a run above all others that does not meet the last one.
+         */
+        void append( int lo, int hi ) {
+            if ( 2 * count == runs.length ) {
+                runs = Arrays.copyOf( runs, Math.max( 4, 2 * runs.length ) );
+            }
+            runs[ 2 * count ] = (char) lo;
+            runs[ 2 * count + 1 ] = (char) ( hi - lo - 1 );
+            count++;
+            card += hi - lo;
+        }
+
+        @Override
+        Container add( int lo, int hi ) {
+            // runs first..last meet or overlap [lo,hi); ends ascend like starts
+            int first = 0;
+            int high = count;
+            while ( first < high ) {
+                int mid = ( first + high ) >>> 1;
+                if ( end( mid ) < lo ) {
+                    first = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            int last = lastStartAtMost( hi );
+            int removed = last - first + 1;
+            if ( removed > 0 ) {
+                lo = Math.min( lo, start( first ) );
+                hi = Math.max( hi, end( last ) );
+                for ( int i = first; i <= last; i++ ) {
+                    card -= end( i ) - start( i );
+                }
+            }
+            int newCount = count - removed + 1;
+            if ( 2 * newCount > runs.length ) {
+                runs = Arrays.copyOf( runs, Math.max( 2 * newCount, 2 * runs.length ) );
+            }
+            int tail = removed > 0 ? last + 1 : first;
+            System.arraycopy( runs, 2 * tail, runs, 2 * first + 2, 2 * ( count - tail ) );
+            runs[ 2 * first ] = (char) lo;
+            runs[ 2 * first + 1 ] = (char) ( hi - lo - 1 );
+            count = newCount;
+            card += hi - lo;
+            if ( 4 * count > BITMAP_BYTES ) {
+                return new BitmapContainer( words(), card );
+            }
+            return this;
+        }
+
+        /**
+         * Index of the last run starting at or before value, -1 if none.
+         */
+        private int lastStartAtMost( int value ) {
+            int lo = 0;
+            int hi = count;
+            while ( lo < hi ) {
+                int mid = ( lo + hi ) >>> 1;
+                if ( start( mid ) <= value ) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo - 1;
+        }
+
+        @Override
+        boolean contains( int low ) {
+            int i = lastStartAtMost( low );
+            return i >= 0 && low < end( i );
+        }
+
+        @Override
+        int cardinality() {
+            return card;
+        }
+
+        @Override
+        int sizeInBytes() {
+            return 4 * count;
+        }
+
+        @Override
+        void orInto( long[] words ) {
+            for ( int i = 0; i < count; i++ ) {
+                setBits( words, start( i ), end( i ) );
+            }
+        }
+
+        @Override
+        void forEachRun( RunVisitor visitor ) {
+            for ( int i = 0; i < count; i++ ) {
+                visitor.run( start( i ), end( i ) );
+            }
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Immutable index over a collection of ranges, answering which ranges contain
+ * a point (stabbing) or overlap another range.
+ *
+ * <p>
+ * The ranges are kept in an array sorted by {@link Range#compareTo}, which is
+ * read as an implicit balanced binary tree: the root of the slice [lo,hi) is
+ * the element in the middle. Each node is augmented with the maximum end of
+ * its subtree, so that a query can skip whole subtrees that end before the
+ * query starts. Both kind of queries take O(log N + K) for K results.</p>
+ *
+ * <p>
+ * Only {@link Range#start()} and {@link Range#end()} are used, so any range
+ * implementation can be indexed. Empty ranges contain and overlap nothing
+ * and are left out.</p>
+ *
+ * @param <R> range type
+ * @param <P> demarcation type of range
+ * @param <D> unit of distance
+ */
+public final class IntervalIndex<R extends Range<R, P, D>, P extends Comparable<? super P>, D extends Comparable<? super D>> {
+
+    private final R[] ranges;
+    private final P[] maxEnd;
+
+    @SuppressWarnings( "unchecked" )
+    private IntervalIndex( Collection<? extends R> source ) {
+        this.ranges = (R[]) source.stream()
+                .filter( r -> r.start().compareTo( r.end() ) < 0 )
+                .sorted()
+                .toArray( Range[]::new );
+        this.maxEnd = (P[]) new Comparable<?>[ ranges.length ];
+        augment( 0, ranges.length );
+    }
+
+    /**
+     * Build an index over the given ranges. The collection is copied, later
+     * modifications of it are not visible in the index.
+     *
+     * @param <R> range type
+     * @param <P> demarcation type of range
+     * @param <D> unit of distance
+     * @param ranges to index
+     * @return the index
+     */
+    public static <R extends Range<R, P, D>, P extends Comparable<? super P>, D extends Comparable<? super D>>
+            IntervalIndex<R, P, D> of( Collection<? extends R> ranges ) {
+        RangeEvents.Bulk event = new RangeEvents.Bulk();
+        event.begin();
+        IntervalIndex<R, P, D> result = new IntervalIndex<>( ranges );
+        event.report( "IntervalIndex.of", result.ranges.length > 0 ? result.ranges[ 0 ]
+                : null, ranges.size() );
+        return result;
+    }
+
+    /**
+     * Compute the max end of the subtree for slice [lo,hi).
+     *
+     * @return the max end of the subtree or null for an empty slice
+     */
+    private P augment( int lo, int hi ) {
+        if ( lo >= hi ) {
+            return null;
+        }
+        int mid = ( lo + hi ) >>> 1;
+        P max = ranges[ mid ].end();
+        P left = augment( lo, mid );
+        P right = augment( mid + 1, hi );
+        if ( left != null ) {
+            max = Range.max( max, left );
+        }
+        if ( right != null ) {
+            max = Range.max( max, right );
+        }
+        maxEnd[ mid ] = max;
+        return max;
+    }
+
+    /**
+     * The number of indexed ranges.
+     *
+     * @return the size
+     */
+    public int size() {
+        return ranges.length;
+    }
+
+    /**
+     * All indexed ranges in {@link Range#compareTo} order.
+     *
+     * @return unmodifiable list of the ranges
+     */
+    public List<R> ranges() {
+        return Collections.unmodifiableList( Arrays.asList( ranges ) );
+    }
+
+    /**
+     * Visit every range that contains the point, in start order.
+     *
+     * @param point to stab with
+     * @param action to apply to each containing range
+     */
+    public void forEachContaining( P point, Consumer<? super R> action ) {
+        // a range contains point iff start <= point < end, which is an
+        // overlap query where the query start and the 'before' limit coincide.
+        RangeEvents.Bulk event = new RangeEvents.Bulk();
+        event.begin();
+        visit( 0, ranges.length, point, point, true, action );
+        event.report( "IntervalIndex.forEachContaining", null, ranges.length );
+    }
+
+    /**
+     * Visit every range that overlaps the other range, in start order.
+     *
+     * @param other range to test against
+     * @param action to apply to each overlapping range
+     */
+    public void forEachOverlapping( R other, Consumer<? super R> action ) {
+        if ( other.start().compareTo( other.end() ) >= 0 ) {
+            return; // an empty range overlaps nothing
+        }
+        RangeEvents.Bulk event = new RangeEvents.Bulk();
+        event.begin();
+        visit( 0, ranges.length, other.start(), other.end(), false, action );
+        event.report( "IntervalIndex.forEachOverlapping", other, ranges.length );
+    }
+
+    /**
+     * Collect the ranges that contain the point.
+     *
+     * @param point to stab with
+     * @return the ranges containing point, in start order
+     */
+    public List<R> containing( P point ) {
+        List<R> result = new ArrayList<>();
+        forEachContaining( point, result::add );
+        return result;
+    }
+
+    /**
+     * Collect the ranges that overlap other.
+     *
+     * @param other to test
+     * @return the ranges overlapping other, in start order
+     */
+    public List<R> overlapping( R other ) {
+        List<R> result = new ArrayList<>();
+        forEachOverlapping( other, result::add );
+        return result;
+    }
+
+    /**
+     * Count the ranges that contain the point.
+     *
+     * @param point to stab with
+     * @return the number of ranges containing point
+     */
+    public int countContaining( P point ) {
+        int[] count = { 0 };
+        forEachContaining( point, r -> count[ 0 ]++ );
+        return count[ 0 ];
+    }
+
+    /**
+     * Count the ranges that overlap other.
+     *
+     * @param other to test
+     * @return the number of ranges overlapping other
+     */
+    public int countOverlapping( R other ) {
+        int[] count = { 0 };
+        forEachOverlapping( other, r -> count[ 0 ]++ );
+        return count[ 0 ];
+    }
+
+    /**
+     * In order walk of slice [lo,hi), reporting the ranges with end &gt; from
+     * and start &lt; to (or start &le; to when inclusive).
+     */
+    private void visit( int lo, int hi, P from, P to, boolean inclusive,
+            Consumer<? super R> action ) {
+        while ( lo < hi ) {
+            int mid = ( lo + hi ) >>> 1;
+            if ( maxEnd[ mid ].compareTo( from ) <= 0 ) {
+                return; // everything in this subtree ends too early
+            }
+            visit( lo, mid, from, to, inclusive, action );
+            R r = ranges[ mid ];
+            int c = r.start().compareTo( to );
+            if ( c > 0 || ( c == 0 && !inclusive ) ) {
+                return; // this node and its right subtree start too late
+            }
+            if ( r.end().compareTo( from ) > 0 ) {
+                action.accept( r );
+            }
+            lo = mid + 1;
+        }
+    }
+}
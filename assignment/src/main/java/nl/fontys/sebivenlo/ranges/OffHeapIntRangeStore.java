@@ -0,0 +1,429 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Columnar store for many integer ranges, kept outside the java heap.
+ *
+ * <p>
+ * The starts and ends are stored in two parallel {@code int} columns, each in
+ * its own direct {@link ByteBuffer}, at 8 bytes per range and without object
+ * headers. The garbage collector only sees the two buffers. Ranges are read
+ * through a {@link Cursor}, a flyweight that moves over the rows and answers
+ * the usual range questions without creating range objects. Conversion to
+ * {@link IntegerRange} or {@link IntRange} only happens on request.</p>
+ *
+ * <p>
+ * Rows are normalized on append, like the range factories do. After
+ * {@link #sort()} the rows are in {@link Range#compareTo} order (ties broken
+ * by end) and can be searched by start.</p>
+ *
+ * <p>
+ * This class is not thread safe.</p>
+ */
+public final class OffHeapIntRangeStore {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private IntBuffer starts;
+    private IntBuffer ends;
+    private int size;
+    private boolean sorted = true;
+
+    /**
+     * Create an empty store with a default initial capacity.
+     */
+    public OffHeapIntRangeStore() {
+        this( DEFAULT_CAPACITY );
+    }
+
+    /**
+     * Create an empty store.
+     *
+     * @param initialCapacity number of ranges before the first growth
+     */
+    public OffHeapIntRangeStore( int initialCapacity ) {
+        if ( initialCapacity < 0 ) {
+            throw new IllegalArgumentException( "negative capacity "
+                    + initialCapacity );
+        }
+        this.starts = allocate( initialCapacity );
+        this.ends = allocate( initialCapacity );
+    }
+
+    private static IntBuffer allocate( int capacity ) {
+        return ByteBuffer.allocateDirect( capacity * Integer.BYTES )
+                .order( ByteOrder.nativeOrder() )
+                .asIntBuffer();
+    }
+
+    /**
+     * Copy ranges from a stream into a new store.
+     *
+     * @param ranges integer based ranges of any flavour
+     * @return the store
+     */
+    public static OffHeapIntRangeStore from(
+            Stream<? extends Range<?, Integer, ?>> ranges ) {
+        OffHeapIntRangeStore store = new OffHeapIntRangeStore();
+        ranges.forEachOrdered( store::append );
+        return store;
+    }
+
+    /**
+     * Append a range.
+     *
+     * @param start of range
+     * @param end of range
+     */
+    public void append( int start, int end ) {
+        if ( size == starts.capacity() ) {
+            grow();
+        }
+        int s = Math.min( start, end );
+        int e = Math.max( start, end );
+        if ( size > 0 && compare( s, e, size - 1 ) < 0 ) {
+            sorted = false;
+        }
+        starts.put( size, s );
+        ends.put( size, e );
+        size++;
+    }
+
+    /**
+     * Append a range.
+     *
+     * @param range to copy
+     */
+    public void append( Range<?, Integer, ?> range ) {
+        append( range.start(), range.end() );
+    }
+
+    private void grow() {
+        int capacity = starts.capacity();
+        int newCapacity = (int) Math.min( Integer.MAX_VALUE / Integer.BYTES,
+                Math.max( DEFAULT_CAPACITY, 2L * capacity ) );
+        if ( newCapacity == capacity ) {
+            throw new IllegalStateException( "store is full at " + size
+                    + " ranges" );
+        }
+        starts = copy( starts, newCapacity );
+        ends = copy( ends, newCapacity );
+    }
+
+    private IntBuffer copy( IntBuffer from, int capacity ) {
+        IntBuffer to = allocate( capacity );
+        IntBuffer source = from.duplicate();
+        source.position( 0 ).limit( size );
+        to.put( source );
+        to.clear();
+        return to;
+    }
+
+    /**
+     * The number of ranges.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Start of the range at index.
+     *
+     * @param index of row
+     * @return start
+     */
+    public int start( int index ) {
+        return starts.get( checkIndex( index ) );
+    }
+
+    /**
+     * End of the range at index.
+     *
+     * @param index of row
+     * @return end
+     */
+    public int end( int index ) {
+        return ends.get( checkIndex( index ) );
+    }
+
+    private int checkIndex( int index ) {
+        if ( index < 0 || index >= size ) {
+            throw new IndexOutOfBoundsException( "index " + index
+                    + " out of bounds for size " + size );
+        }
+        return index;
+    }
+
+    /**
+     * Are the rows in start order.
+     *
+     * @return true if sorted
+     */
+    public boolean isSorted() {
+        return sorted;
+    }
+
+    /**
+     * Sort the rows by start, ties broken by end. Sorting is done in place,
+     * in the off-heap columns.
+     */
+    public void sort() {
+        if ( !sorted ) {
+            quickSort( 0, size - 1 );
+            sorted = true;
+        }
+    }
+
+    /**
+     * Binary search for the first row with a start at or after the given
+     * value.
+     *
+     * @param start to search for
+     * @return the index of the first row with row start &ge; start, or
+     * {@link #size()} if there is none
+     * @throws IllegalStateException when the store is not sorted
+     */
+    public int lowerBound( int start ) {
+        if ( !sorted ) {
+            throw new IllegalStateException( "store must be sorted first" );
+        }
+        int lo = 0;
+        int hi = size;
+        while ( lo < hi ) {
+            int mid = ( lo + hi ) >>> 1;
+            if ( starts.get( mid ) < start ) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Get a cursor positioned before the first row.
+     *
+     * @return a new cursor
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Materialize the rows as IntegerRanges.
+     *
+     * @return stream of ranges in row order
+     */
+    public Stream<IntegerRange> stream() {
+        return IntStream.range( 0, size )
+                .mapToObj( i -> IntegerRange.of( starts.get( i ), ends.get( i ) ) );
+    }
+
+    /**
+     * Materialize the rows as IntRanges.
+     *
+     * @return stream of ranges in row order
+     */
+    public Stream<IntRange> intRanges() {
+        return IntStream.range( 0, size )
+                .mapToObj( i -> IntRange.of( starts.get( i ), ends.get( i ) ) );
+    }
+
+    /**
+     * Flyweight view on one row of the store. The cursor is only valid while
+     * the store is not modified.
+     */
+    public final class Cursor {
+
+        private int index = -1;
+
+        private Cursor() {
+        }
+
+        /**
+         * Advance to the next row.
+         *
+         * @return false when there are no more rows
+         */
+        public boolean next() {
+            if ( index + 1 >= size ) {
+                index = size;
+                return false;
+            }
+            index++;
+            return true;
+        }
+
+        /**
+         * Position the cursor on a row.
+         *
+         * @param index of the row
+         * @return this cursor
+         */
+        public Cursor moveTo( int index ) {
+            this.index = checkIndex( index );
+            return this;
+        }
+
+        /**
+         * The current row.
+         *
+         * @return the index
+         */
+        public int index() {
+            return index;
+        }
+
+        /**
+         * Start of the current row.
+         *
+         * @return start
+         */
+        public int start() {
+            return starts.get( index );
+        }
+
+        /**
+         * End of the current row.
+         *
+         * @return end
+         */
+        public int end() {
+            return ends.get( index );
+        }
+
+        /**
+         * Length of the current row.
+         *
+         * @return end - start
+         */
+        public int length() {
+            return end() - start();
+        }
+
+        /**
+         * Does the current row contain the point.
+         *
+         * @param point to test
+         * @return true if start &le; point &lt; end
+         */
+        public boolean contains( int point ) {
+            return start() <= point && point < end();
+        }
+
+        /**
+         * Does the current row overlap the range [start,end).
+         *
+         * @param start of other range
+         * @param end of other range
+         * @return true on overlap
+         */
+        public boolean overlaps( int start, int end ) {
+            return Math.min( end(), end ) > Math.max( start(), start );
+        }
+
+        /**
+         * Materialize the current row.
+         *
+         * @return a new IntegerRange
+         */
+        public IntegerRange toIntegerRange() {
+            return IntegerRange.of( start(), end() );
+        }
+
+        /**
+         * Materialize the current row.
+         *
+         * @return a new IntRange
+         */
+        public IntRange toIntRange() {
+            return IntRange.of( start(), end() );
+        }
+
+        @Override
+        public String toString() {
+            return "[" + start() + "," + end() + ")";
+        }
+    }
+
+    private int compare( int s, int e, int row ) {
+        int c = Integer.compare( s, starts.get( row ) );
+        return c != 0 ? c : Integer.compare( e, ends.get( row ) );
+    }
+
+    private void swap( int i, int j ) {
+        int s = starts.get( i );
+        int e = ends.get( i );
+        starts.put( i, starts.get( j ) );
+        ends.put( i, ends.get( j ) );
+        starts.put( j, s );
+        ends.put( j, e );
+    }
+
+    /**
+     * Quick sort with median of three pivot, recursing on the smaller part
+     * only, so the stack depth stays logarithmic.
+     */
+    private void quickSort( int lo, int hi ) {
+        while ( hi - lo > INSERTION_SORT_THRESHOLD ) {
+            int mid = ( lo + hi ) >>> 1;
+            if ( compare( starts.get( mid ), ends.get( mid ), lo ) < 0 ) {
+                swap( mid, lo );
+            }
+            if ( compare( starts.get( hi ), ends.get( hi ), lo ) < 0 ) {
+                swap( hi, lo );
+            }
+            if ( compare( starts.get( hi ), ends.get( hi ), mid ) < 0 ) {
+                swap( hi, mid );
+            }
+            int ps = starts.get( mid );
+            int pe = ends.get( mid );
+            int i = lo;
+            int j = hi;
+            while ( i <= j ) {
+                while ( compare( ps, pe, i ) > 0 ) {
+                    i++;
+                }
+                while ( compare( ps, pe, j ) < 0 ) {
+                    j--;
+                }
+                if ( i <= j ) {
+                    swap( i, j );
+                    i++;
+                    j--;
+                }
+            }
+            if ( j - lo < hi - i ) {
+                quickSort( lo, j );
+                lo = i;
+            } else {
+                quickSort( i, hi );
+                hi = j;
+            }
+        }
+        insertionSort( lo, hi );
+    }
+
+    private void insertionSort( int lo, int hi ) {
+        for ( int i = lo + 1; i <= hi; i++ ) {
+            int s = starts.get( i );
+            int e = ends.get( i );
+            int j = i - 1;
+            while ( j >= lo && compare( s, e, j ) < 0 ) {
+                starts.put( j + 1, starts.get( j ) );
+                ends.put( j + 1, ends.get( j ) );
+                j--;
+            }
+            starts.put( j + 1, s );
+            ends.put( j + 1, e );
+        }
+    }
+}
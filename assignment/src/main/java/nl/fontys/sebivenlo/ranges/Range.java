@@ -4,6 +4,7 @@ import java.io.Serializable;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 /**
@@ -143,6 +144,17 @@ public interface Range<R extends Range<R, P, D>, P extends Comparable<? super P>
                 .end() ) );
     }
 
+    /**
+     * Do this and other meet or overlap, in other words, can they be joined.
+     * The test of {@link #checkMeetsOrOverlaps(Range)}, without exception.
+     *
+     * @param other range
+     * @return true when this and other meet or overlap
+     */
+    default boolean meetsOrOverlaps( R other ) {
+        return meets( other ) || overlaps( other );
+    }
+
     /**
      * Helper to check that join is allowed, or intersection or punchThrough is
      * meaningful.
@@ -151,11 +163,13 @@ public interface Range<R extends Range<R, P, D>, P extends Comparable<? super P>
      * @throws IllegalArgumentException when overlap is not possible
      */
     default void checkMeetsOrOverlaps( R other ) {
-        if ( !( meets( other ) || overlaps( other ) ) ) {
-            throw new IllegalArgumentException( "this range " + this.toString()
+        if ( !meetsOrOverlaps( other ) ) {
+            String message = "this range " + this.toString()
                     + " and other " + other
                             .toString()
-                    + " do not meet nor overlap" );
+                    + " do not meet nor overlap";
+            new RangeEvents.NoOverlap().report( this, message );
+            throw new IllegalArgumentException( message );
         }
 
     }
@@ -169,7 +183,28 @@ public interface Range<R extends Range<R, P, D>, P extends Comparable<? super P>
      * common, in other words do not overlap or meet.
      */
     default R joinWith( R other ) throws IllegalArgumentException {
+        RangeEvents.Join event = new RangeEvents.Join();
+        event.begin();
         checkMeetsOrOverlaps( other );
+        R result = between( min( this.start(), other.start() ), max( this.end(),
+                other.end() ) );
+        event.report( this );
+        return result;
+    }
+
+    /**
+     * Join this range with other range if they meet or overlap. Unlike
+     * {@link #joinWith(Range)} this does not throw, which makes it the cheaper
+     * choice in loops where ranges often cannot be joined.
+     *
+     * @param other range to join
+     * @return new joined range, or null when this and other do not meet nor
+     * overlap.
+     */
+    default R tryJoinWith( R other ) {
+        if ( !meetsOrOverlaps( other ) ) {
+            return null;
+        }
         return between( min( this.start(), other.start() ), max( this.end(),
                 other.end() ) );
     }
@@ -182,12 +217,15 @@ public interface Range<R extends Range<R, P, D>, P extends Comparable<? super P>
     BiFunction<P, P, D> meter();
 
     /**
-     * Helper to avoid code duplication.
+     * Helper to avoid code duplication. The value is the same as that of
+     * {@code Objects.hash(start(), end())}, computed without the varargs
+     * array.
      *
      * @return the hash code for this object
      */
     default int rangeHashCode() {
-        return Objects.hash( start(), end() );
+        return 31 * ( 31 + Objects.hashCode( start() ) ) + Objects.hashCode(
+                end() );
     }
 
     /**
@@ -199,12 +237,12 @@ public interface Range<R extends Range<R, P, D>, P extends Comparable<? super P>
      * @return the truth about
      */
     default boolean rangeEquals( Object obj ) {
+        if ( this == obj ) {
+            return true; // cheap for interned ranges
+        }
         if ( obj == null ) {
             return false;
         }
-        if ( this == obj ) {
-            return true;
-        }
         // only if same class
         if ( ( this.getClass() != obj.getClass() ) ) {
             return false;
@@ -275,13 +313,16 @@ public interface Range<R extends Range<R, P, D>, P extends Comparable<? super P>
      * cutter have an overlap.
      */
     default Optional<R> intersectWith( R other ) {
+        RangeEvents.Intersect event = new RangeEvents.Intersect();
+        event.begin();
+        Optional<R> result = Optional.empty();
         if (this.overlaps(other)) {
             P intStart = max(this.start(), other.start());
             P intEnd = min(this.end(), other.end());
-            return Optional.of(between(intStart, intEnd));
+            result = Optional.of(between(intStart, intEnd));
         }
-
-        return Optional.empty();
+        event.report( this );
+        return result;
     }
 
     /**
@@ -316,28 +357,133 @@ public interface Range<R extends Range<R, P, D>, P extends Comparable<? super P>
      *
      */
     default Stream<R> punchThrough( R punch ) {
+        Stream.Builder<R> parts = Stream.builder();
+        punchThrough( punch, parts );
+        return parts.build();
+    }
+
+    /**
+     * Variant of {@link #punchThrough(Range)} that hands the parts to a sink
+     * instead of building a stream. The sink receives the same parts in the
+     * same order, and can for instance be the add method of a reused list.
+     * The stream variant is built on this one, so an implementation only
+     * needs to override this method.
+     *
+     * @param punch to knockout parts of this range
+     * @param sink receiving the parts
+     * @return the number of parts passed to sink, 1 to 3.
+     */
+    default int punchThrough( R punch, Consumer<? super R> sink ) {
+        RangeEvents.PunchThrough event = new RangeEvents.PunchThrough();
+        event.begin();
+        int result = punchParts( punch, sink );
+        event.report( this );
+        return result;
+    }
+
+    private int punchParts( R punch, Consumer<? super R> sink ) {
         //TODO A6B Study punchThrough and improve coverage.
         if ( !this.contains( punch ) ) {
-            // missed: this
-            return Stream.of( self() );
+            sink.accept( self() );
+            return 1;
         }
         if ( this.rangeEquals( punch ) ) {
-            // full punch: punch
-            return Stream.of( punch );
+            sink.accept( punch );
+            return 1;
         }
         if ( this.start().equals( punch.start() ) ) {
-            // left punch: punch, remainder
-            R remainder = between( punch.end(), this.end() );
-            return Stream.of( punch, remainder );
+            sink.accept( punch );
+            sink.accept( between( punch.end(), this.end() ) );
+            return 2;
         }
         if ( this.end().equals( punch.end() ) ) {
-            // right punch: remainder punch
-            R remainder = between( this.start(), punch.start() );
-            return Stream.of( remainder, punch );
+            sink.accept( between( this.start(), punch.start() ) );
+            sink.accept( punch );
+            return 2;
+        }
+        sink.accept( between( this.start(), punch.start() ) );
+        sink.accept( punch );
+        sink.accept( between( punch.end(), this.end() ) );
+        return 3;
+    }
+
+    /**
+     * Punch through every range of a sorted sequence in one pass. Each range
+     * is replaced by its {@link #punchThrough(Range, Consumer) punchThrough}
+     * parts, which are handed to sink in order. Since only a range that
+     * starts at or before the punch can contain it, the ranges after that are
+     * passed on without further tests.
+     *
+     * @param <R> range type
+     * @param <P> demarcation type of range
+     * @param <D> unit of distance
+     * @param punch to knockout parts of the ranges
+     * @param sortedRanges ranges in {@link #compareTo} order
+     * @param sink receiving the parts
+     * @return the number of parts passed to sink
+     */
+    static <R extends Range<R, P, D>, P extends Comparable<? super P>, D extends Comparable<? super D>>
+            int punchThroughAll( R punch, Iterable<? extends R> sortedRanges,
+                    Consumer<? super R> sink ) {
+        RangeEvents.Bulk event = new RangeEvents.Bulk();
+        event.begin();
+        int count = 0;
+        boolean passed = false;
+        for ( R range : sortedRanges ) {
+            if ( !passed && range.start().compareTo( punch.start() ) > 0 ) {
+                passed = true;
+            }
+            if ( passed ) {
+                sink.accept( range );
+                count++;
+            } else {
+                count += range.punchThrough( punch, sink );
+            }
+        }
+        event.report( "Range.punchThroughAll", punch, -1 );
+        return count;
+    }
+
+    /**
+     * Join consecutive ranges that meet or overlap, using
+     * {@link #tryJoinWith(Range)}, and hand the joined runs to sink. Every
+     * range is compared with the run built so far only, so for ranges sorted
+     * in {@link #compareTo} order the result is the sorted list of disjoint
+     * ranges covering the same points. No exceptions are thrown for ranges
+     * that cannot be joined. Unlike {@link RangeCollectors#coalescing()} this
+     * keeps an empty range that does not touch its neighbours.
+     *
+     * @param <R> range type
+     * @param <P> demarcation type of range
+     * @param <D> unit of distance
+     * @param ranges to join, typically sorted
+     * @param sink receiving the joined ranges, in order
+     * @return the number of ranges passed to sink
+     */
+    static <R extends Range<R, P, D>, P extends Comparable<? super P>, D extends Comparable<? super D>>
+            int joinAdjacent( Iterable<? extends R> ranges, Consumer<? super R> sink ) {
+        RangeEvents.Bulk event = new RangeEvents.Bulk();
+        event.begin();
+        int count = 0;
+        R run = null;
+        for ( R range : ranges ) {
+            R joined = run == null ? null : run.tryJoinWith( range );
+            if ( joined != null ) {
+                run = joined;
+                continue;
+            }
+            if ( run != null ) {
+                sink.accept( run );
+                count++;
+            }
+            run = range;
+        }
+        if ( run != null ) {
+            sink.accept( run );
+            count++;
         }
-        R leftRemainder = between( this.start(), punch.start() );
-        R rightRemainder = between( punch.end(), this.end() );
-        return Stream.of( leftRemainder, punch, rightRemainder );
+        event.report( "Range.joinAdjacent", run, -1 );
+        return count;
     }
 
     /**
@@ -0,0 +1,205 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Containment tests for whole arrays of primitive points.
+ *
+ * <p>
+ * The loops work on plain {@code int} and {@code long} values and do not
+ * branch per element: {@code start <= p && p < end} is computed as one
+ * unsigned comparison, {@code p - start < end - start}, which in turn is a
+ * signed comparison with the sign bits flipped. Loops of that shape, writing
+ * to a {@code boolean[]} or {@code int[]}, are candidates for the auto
+ * vectorizer of the JIT compiler. The {@link BitSet} variants pack 64
+ * results into a word before storing it.</p>
+ *
+ * <p>
+ * The {@code long} variants take the bounds as primitives, so any range that
+ * maps to longs can be tested, for instance an {@link InstantRange} as epoch
+ * nanoseconds.</p>
+ *
+ * <p>
+ * A mask must be at least as long as the points array; only the first
+ * points.length elements are written.</p>
+ */
+public final class RangeBatch {
+
+    private RangeBatch() {
+    }
+
+    /**
+     * For every point, tell whether range contains it.
+     *
+     * @param range to test against
+     * @param points to test
+     * @param mask receives the outcome per point
+     */
+    public static void contains( Range<?, Integer, ?> range, int[] points,
+            boolean[] mask ) {
+        checkLength( points.length, mask.length );
+        int start = range.start();
+        int bound = ( range.end() - start ) ^ Integer.MIN_VALUE;
+        for ( int i = 0; i < points.length; i++ ) {
+            mask[ i ] = ( ( points[ i ] - start ) ^ Integer.MIN_VALUE ) < bound;
+        }
+    }
+
+    /**
+     * The indices of the points that range contains.
+     *
+     * @param range to test against
+     * @param points to test
+     * @return a set with bit i set when range contains points[i]
+     */
+    public static BitSet contains( Range<?, Integer, ?> range, int[] points ) {
+        int start = range.start();
+        long bound = ( range.end() - start ) ^ Integer.MIN_VALUE;
+        long[] words = new long[ ( points.length + 63 ) >>> 6 ];
+        for ( int w = 0; w < words.length; w++ ) {
+            int from = w << 6;
+            int to = Math.min( points.length, from + 64 );
+            long word = 0;
+            for ( int i = from; i < to; i++ ) {
+                long p = ( points[ i ] - start ) ^ Integer.MIN_VALUE;
+                word |= ( ( p - bound ) >>> 63 ) << ( i - from );
+            }
+            words[ w ] = word;
+        }
+        return BitSet.valueOf( words );
+    }
+
+    /**
+     * For every point, tell whether the half open range [start,end) contains
+     * it.
+     *
+     * @param start of the range, inclusive
+     * @param end of the range, exclusive
+     * @param points to test
+     * @param mask receives the outcome per point
+     * @throws IllegalArgumentException when end &lt; start
+     */
+    public static void contains( long start, long end, long[] points,
+            boolean[] mask ) {
+        checkBounds( start, end );
+        checkLength( points.length, mask.length );
+        long bound = ( end - start ) ^ Long.MIN_VALUE;
+        for ( int i = 0; i < points.length; i++ ) {
+            mask[ i ] = ( ( points[ i ] - start ) ^ Long.MIN_VALUE ) < bound;
+        }
+    }
+
+    /**
+     * The indices of the points that the half open range [start,end)
+     * contains.
+     *
+     * @param start of the range, inclusive
+     * @param end of the range, exclusive
+     * @param points to test
+     * @return a set with bit i set when the range contains points[i]
+     * @throws IllegalArgumentException when end &lt; start
+     */
+    public static BitSet contains( long start, long end, long[] points ) {
+        checkBounds( start, end );
+        long bound = ( end - start ) ^ Long.MIN_VALUE;
+        long[] words = new long[ ( points.length + 63 ) >>> 6 ];
+        for ( int w = 0; w < words.length; w++ ) {
+            int from = w << 6;
+            int to = Math.min( points.length, from + 64 );
+            long word = 0;
+            for ( int i = from; i < to; i++ ) {
+                word |= lessThan( ( points[ i ] - start ) ^ Long.MIN_VALUE, bound )
+                        << ( i - from );
+            }
+            words[ w ] = word;
+        }
+        return BitSet.valueOf( words );
+    }
+
+    /**
+     * For every point, tell which of up to 32 ranges contain it.
+     *
+     * @param ranges to test against, at most 32
+     * @param points to test
+     * @param mask receives per point an int with bit r set when
+     * ranges.get(r) contains the point
+     * @throws IllegalArgumentException for more than 32 ranges
+     */
+    public static void containedIn( List<? extends Range<?, Integer, ?>> ranges,
+            int[] points, int[] mask ) {
+        if ( ranges.size() > Integer.SIZE ) {
+            throw new IllegalArgumentException( "at most " + Integer.SIZE
+                    + " ranges fit a mask, not " + ranges.size() );
+        }
+        checkLength( points.length, mask.length );
+        Arrays.fill( mask, 0, points.length, 0 );
+        for ( int r = 0; r < ranges.size(); r++ ) {
+            Range<?, Integer, ?> range = ranges.get( r );
+            int start = range.start();
+            long bound = ( range.end() - start ) ^ Integer.MIN_VALUE;
+            for ( int i = 0; i < points.length; i++ ) {
+                long p = ( points[ i ] - start ) ^ Integer.MIN_VALUE;
+                mask[ i ] |= (int) ( ( p - bound ) >>> 63 ) << r;
+            }
+        }
+    }
+
+    /**
+     * For every point, tell which of up to 32 half open ranges
+     * [starts[r],ends[r]) contain it.
+     *
+     * @param starts of the ranges, inclusive, at most 32
+     * @param ends of the ranges, exclusive, as many as starts
+     * @param points to test
+     * @param mask receives per point an int with bit r set when range r
+     * contains the point
+     * @throws IllegalArgumentException for more than 32 ranges, for starts
+     * and ends of different length or when an end is before its start
+     */
+    public static void containedIn( long[] starts, long[] ends, long[] points,
+            int[] mask ) {
+        if ( starts.length != ends.length ) {
+            throw new IllegalArgumentException( starts.length + " starts but "
+                    + ends.length + " ends" );
+        }
+        if ( starts.length > Integer.SIZE ) {
+            throw new IllegalArgumentException( "at most " + Integer.SIZE
+                    + " ranges fit a mask, not " + starts.length );
+        }
+        checkLength( points.length, mask.length );
+        Arrays.fill( mask, 0, points.length, 0 );
+        for ( int r = 0; r < starts.length; r++ ) {
+            long start = starts[ r ];
+            checkBounds( start, ends[ r ] );
+            long bound = ( ends[ r ] - start ) ^ Long.MIN_VALUE;
+            for ( int i = 0; i < points.length; i++ ) {
+                long p = ( points[ i ] - start ) ^ Long.MIN_VALUE;
+                mask[ i ] |= (int) lessThan( p, bound ) << r;
+            }
+        }
+    }
+
+    /**
+     * 1 when x &lt; y, else 0, without a branch. Taken from Hacker's Delight,
+     * section 2-12.
+     */
+    private static long lessThan( long x, long y ) {
+        return ( ( x & ~y ) | ( ~( x ^ y ) & ( x - y ) ) ) >>> 63;
+    }
+
+    private static void checkBounds( long start, long end ) {
+        if ( end < start ) {
+            throw new IllegalArgumentException( "end " + end + " is before start "
+                    + start );
+        }
+    }
+
+    private static void checkLength( int points, int mask ) {
+        if ( mask < points ) {
+            throw new IllegalArgumentException( "mask of length " + mask
+                    + " is shorter than " + points + " points" );
+        }
+    }
+}
@@ -0,0 +1,512 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Compact binary encoding of integer and instant ranges.
+ *
+ * <p>
+ * All numbers are written as variable length integers (7 bits per byte, high
+ * bit set when more bytes follow), signed values zig-zag encoded so that small
+ * negative numbers stay small. A range is written as its start followed by its
+ * length, which is never negative:</p>
+ * <ul>
+ * <li>integer range: start, length; 2 to 10 bytes.</li>
+ * <li>instant range: start epoch second, start nano, length seconds, length
+ * nanos; 4 to 30 bytes.</li>
+ * </ul>
+ * <p>
+ * A sequence is written as its size, followed by the ranges, where each start
+ * is written as the difference with the previous start. Sorted sequences
+ * thus need only a few bytes per range.</p>
+ *
+ * <p>
+ * Every format can be written to and read from {@link DataOutput}/
+ * {@link DataInput}, {@link ByteBuffer} and byte channels; the encodings are
+ * identical.</p>
+ */
+public final class RangeCodec {
+
+    /**
+     * Largest initial capacity of a list read from a sequence.
+     */
+    private static final int MAX_PRESIZE = 1024;
+
+    private RangeCodec() {
+    }
+
+    /**
+     * Byte level output, so that DataOutput and ByteBuffer share the code.
+     */
+    @FunctionalInterface
+    private interface ByteSink {
+
+        void write( int b ) throws IOException;
+    }
+
+    /**
+     * Byte level input, so that DataInput and ByteBuffer share the code.
+     */
+    @FunctionalInterface
+    private interface ByteSource {
+
+        int read() throws IOException;
+    }
+
+    private static ByteSink sink( ByteBuffer buffer ) {
+        return b -> buffer.put( (byte) b );
+    }
+
+    private static ByteSource source( ByteBuffer buffer ) {
+        return () -> buffer.get() & 0xff;
+    }
+
+    /**
+     * Write one integer range.
+     *
+     * @param out to write to
+     * @param range to write
+     * @throws IOException from out
+     */
+    public static void writeIntegerRange( DataOutput out,
+            Range<?, Integer, ?> range ) throws IOException {
+        writeIntegerRange( (ByteSink) out::write, range );
+    }
+
+    /**
+     * Write one integer range.
+     *
+     * @param out to write to
+     * @param range to write
+     * @throws java.nio.BufferOverflowException when out is full
+     */
+    public static void writeIntegerRange( ByteBuffer out,
+            Range<?, Integer, ?> range ) {
+        try {
+            writeIntegerRange( sink( out ), range );
+        } catch ( IOException cannotHappen ) {
+            throw new UncheckedIOException( cannotHappen );
+        }
+    }
+
+    /**
+     * Read one integer range.
+     *
+     * @param in to read from
+     * @return the range
+     * @throws IOException from in
+     */
+    public static IntegerRange readIntegerRange( DataInput in ) throws IOException {
+        return readIntegerRange( in::readUnsignedByte );
+    }
+
+    /**
+     * Read one integer range.
+     *
+     * @param in to read from
+     * @return the range
+     * @throws java.nio.BufferUnderflowException when in is exhausted
+     */
+    public static IntegerRange readIntegerRange( ByteBuffer in ) {
+        try {
+            return readIntegerRange( source( in ) );
+        } catch ( IOException cannotHappen ) {
+            throw new UncheckedIOException( cannotHappen );
+        }
+    }
+
+    /**
+     * Write a sequence of integer ranges.
+     *
+     * @param out to write to
+     * @param ranges to write
+     * @throws IOException from out
+     */
+    public static void writeIntegerRanges( DataOutput out,
+            Collection<? extends Range<?, Integer, ?>> ranges ) throws IOException {
+        writeIntegerRanges( (ByteSink) out::write, ranges );
+    }
+
+    /**
+     * Write a sequence of integer ranges.
+     *
+     * @param out to write to
+     * @param ranges to write
+     * @throws java.nio.BufferOverflowException when out is full
+     */
+    public static void writeIntegerRanges( ByteBuffer out,
+            Collection<? extends Range<?, Integer, ?>> ranges ) {
+        try {
+            writeIntegerRanges( sink( out ), ranges );
+        } catch ( IOException cannotHappen ) {
+            throw new UncheckedIOException( cannotHappen );
+        }
+    }
+
+    /**
+     * Write a sequence of integer ranges. The channel is not closed.
+     *
+     * @param out to write to
+     * @param ranges to write
+     * @throws IOException from out
+     */
+    public static void writeIntegerRanges( WritableByteChannel out,
+            Collection<? extends Range<?, Integer, ?>> ranges ) throws IOException {
+        DataOutputStream data = dataOutput( out );
+        writeIntegerRanges( (DataOutput) data, ranges );
+        data.flush();
+    }
+
+    /**
+     * Read a sequence of integer ranges.
+     *
+     * @param in to read from
+     * @return the ranges
+     * @throws IOException from in
+     */
+    public static List<IntegerRange> readIntegerRanges( DataInput in ) throws IOException {
+        return readIntegerRanges( in::readUnsignedByte );
+    }
+
+    /**
+     * Read a sequence of integer ranges.
+     *
+     * @param in to read from
+     * @return the ranges
+     * @throws java.nio.BufferUnderflowException when in is exhausted
+     * @throws UncheckedIOException when the data is malformed
+     */
+    public static List<IntegerRange> readIntegerRanges( ByteBuffer in ) {
+        try {
+            return readIntegerRanges( source( in ) );
+        } catch ( IOException malformed ) {
+            throw new UncheckedIOException( malformed );
+        }
+    }
+
+    /**
+     * Read a sequence of integer ranges. Since reads are buffered, the channel
+     * should not be used for other reads afterwards.
+     *
+     * @param in to read from
+     * @return the ranges
+     * @throws IOException from in
+     */
+    public static List<IntegerRange> readIntegerRanges( ReadableByteChannel in ) throws IOException {
+        return readIntegerRanges( (DataInput) dataInput( in ) );
+    }
+
+    private static void writeIntegerRange( ByteSink out,
+            Range<?, Integer, ?> range ) throws IOException {
+        int start = range.start();
+        writeVarInt( out, zigZag( start ) );
+        writeVarInt( out, range.end() - start );
+    }
+
+    private static IntegerRange readIntegerRange( ByteSource in ) throws IOException {
+        int start = unZigZag( readVarInt( in ) );
+        return IntegerRange.of( start, start + readVarInt( in ) );
+    }
+
+    private static void writeIntegerRanges( ByteSink out,
+            Collection<? extends Range<?, Integer, ?>> ranges ) throws IOException {
+        writeVarInt( out, ranges.size() );
+        int previous = 0;
+        for ( Range<?, Integer, ?> range : ranges ) {
+            int start = range.start();
+            writeVarInt( out, zigZag( start - previous ) );
+            writeVarInt( out, range.end() - start );
+            previous = start;
+        }
+    }
+
+    private static List<IntegerRange> readIntegerRanges( ByteSource in ) throws IOException {
+        int size = readSize( in );
+        List<IntegerRange> result = new ArrayList<>( Math.min( size, MAX_PRESIZE ) );
+        int start = 0;
+        for ( int i = 0; i < size; i++ ) {
+            start += unZigZag( readVarInt( in ) );
+            result.add( IntegerRange.of( start, start + readVarInt( in ) ) );
+        }
+        return result;
+    }
+
+    /**
+     * Write one instant range.
+     *
+     * @param out to write to
+     * @param range to write
+     * @throws IOException from out
+     */
+    public static void writeInstantRange( DataOutput out,
+            Range<?, Instant, ?> range ) throws IOException {
+        writeInstantRange( (ByteSink) out::write, range, 0L );
+    }
+
+    /**
+     * Write one instant range.
+     *
+     * @param out to write to
+     * @param range to write
+     * @throws java.nio.BufferOverflowException when out is full
+     */
+    public static void writeInstantRange( ByteBuffer out,
+            Range<?, Instant, ?> range ) {
+        try {
+            writeInstantRange( sink( out ), range, 0L );
+        } catch ( IOException cannotHappen ) {
+            throw new UncheckedIOException( cannotHappen );
+        }
+    }
+
+    /**
+     * Read one instant range.
+     *
+     * @param in to read from
+     * @return the range
+     * @throws IOException from in
+     */
+    public static InstantRange readInstantRange( DataInput in ) throws IOException {
+        return readInstantRange( in::readUnsignedByte, 0L );
+    }
+
+    /**
+     * Read one instant range.
+     *
+     * @param in to read from
+     * @return the range
+     * @throws java.nio.BufferUnderflowException when in is exhausted
+     */
+    public static InstantRange readInstantRange( ByteBuffer in ) {
+        try {
+            return readInstantRange( source( in ), 0L );
+        } catch ( IOException cannotHappen ) {
+            throw new UncheckedIOException( cannotHappen );
+        }
+    }
+
+    /**
+     * Write a sequence of instant ranges.
+     *
+     * @param out to write to
+     * @param ranges to write
+     * @throws IOException from out
+     */
+    public static void writeInstantRanges( DataOutput out,
+            Collection<? extends Range<?, Instant, ?>> ranges ) throws IOException {
+        writeInstantRanges( (ByteSink) out::write, ranges );
+    }
+
+    /**
+     * Write a sequence of instant ranges.
+     *
+     * @param out to write to
+     * @param ranges to write
+     * @throws java.nio.BufferOverflowException when out is full
+     */
+    public static void writeInstantRanges( ByteBuffer out,
+            Collection<? extends Range<?, Instant, ?>> ranges ) {
+        try {
+            writeInstantRanges( sink( out ), ranges );
+        } catch ( IOException cannotHappen ) {
+            throw new UncheckedIOException( cannotHappen );
+        }
+    }
+
+    /**
+     * Write a sequence of instant ranges. The channel is not closed.
+     *
+     * @param out to write to
+     * @param ranges to write
+     * @throws IOException from out
+     */
+    public static void writeInstantRanges( WritableByteChannel out,
+            Collection<? extends Range<?, Instant, ?>> ranges ) throws IOException {
+        DataOutputStream data = dataOutput( out );
+        writeInstantRanges( (DataOutput) data, ranges );
+        data.flush();
+    }
+
+    /**
+     * Read a sequence of instant ranges.
+     *
+     * @param in to read from
+     * @return the ranges
+     * @throws IOException from in
+     */
+    public static List<InstantRange> readInstantRanges( DataInput in ) throws IOException {
+        return readInstantRanges( in::readUnsignedByte );
+    }
+
+    /**
+     * Read a sequence of instant ranges.
+     *
+     * @param in to read from
+     * @return the ranges
+     * @throws java.nio.BufferUnderflowException when in is exhausted
+     * @throws UncheckedIOException when the data is malformed
+     */
+    public static List<InstantRange> readInstantRanges( ByteBuffer in ) {
+        try {
+            return readInstantRanges( source( in ) );
+        } catch ( IOException malformed ) {
+            throw new UncheckedIOException( malformed );
+        }
+    }
+
+    /**
+     * Read a sequence of instant ranges. Since reads are buffered, the channel
+     * should not be used for other reads afterwards.
+     *
+     * @param in to read from
+     * @return the ranges
+     * @throws IOException from in
+     */
+    public static List<InstantRange> readInstantRanges( ReadableByteChannel in ) throws IOException {
+        return readInstantRanges( (DataInput) dataInput( in ) );
+    }
+
+    /**
+     * Write an instant range with its start second relative to a base.
+     */
+    private static void writeInstantRange( ByteSink out,
+            Range<?, Instant, ?> range, long baseSecond ) throws IOException {
+        Instant start = range.start();
+        Duration length = Duration.between( start, range.end() );
+        writeVarLong( out, zigZag( start.getEpochSecond() - baseSecond ) );
+        writeVarInt( out, start.getNano() );
+        writeVarLong( out, length.getSeconds() );
+        writeVarInt( out, length.getNano() );
+    }
+
+    private static InstantRange readInstantRange( ByteSource in,
+            long baseSecond ) throws IOException {
+        long startSecond = baseSecond + unZigZag( readVarLong( in ) );
+        int startNano = readVarInt( in );
+        long endSecond = startSecond + readVarLong( in );
+        return InstantRange.ofEpochSecond( startSecond, startNano, endSecond,
+                (long) startNano + readVarInt( in ) );
+    }
+
+    private static void writeInstantRanges( ByteSink out,
+            Collection<? extends Range<?, Instant, ?>> ranges ) throws IOException {
+        writeVarInt( out, ranges.size() );
+        long previous = 0L;
+        for ( Range<?, Instant, ?> range : ranges ) {
+            writeInstantRange( out, range, previous );
+            previous = range.start().getEpochSecond();
+        }
+    }
+
+    private static List<InstantRange> readInstantRanges( ByteSource in ) throws IOException {
+        int size = readSize( in );
+        List<InstantRange> result = new ArrayList<>( Math.min( size, MAX_PRESIZE ) );
+        long previous = 0L;
+        for ( int i = 0; i < size; i++ ) {
+            InstantRange range = readInstantRange( in, previous );
+            result.add( range );
+            previous = range.startEpochSecond();
+        }
+        return result;
+    }
+
+    private static DataOutputStream dataOutput( WritableByteChannel out ) {
+        return new DataOutputStream( new BufferedOutputStream( Channels
+                .newOutputStream( out ) ) );
+    }
+
+    private static DataInputStream dataInput( ReadableByteChannel in ) {
+        return new DataInputStream( new BufferedInputStream( Channels
+                .newInputStream( in ) ) );
+    }
+
+    private static int zigZag( int v ) {
+        return ( v << 1 ) ^ ( v >> 31 );
+    }
+
+    private static int unZigZag( int v ) {
+        return ( v >>> 1 ) ^ -( v & 1 );
+    }
+
+    private static long zigZag( long v ) {
+        return ( v << 1 ) ^ ( v >> 63 );
+    }
+
+    private static long unZigZag( long v ) {
+        return ( v >>> 1 ) ^ -( v & 1 );
+    }
+
+    /**
+     * Write the 32 bits of v as unsigned varint, 1 to 5 bytes.
+     */
+    private static void writeVarInt( ByteSink out, int v ) throws IOException {
+        while ( ( v & ~0x7f ) != 0 ) {
+            out.write( ( v & 0x7f ) | 0x80 );
+            v >>>= 7;
+        }
+        out.write( v );
+    }
+
+    /**
+     * Read a sequence size, which comes from the input and cannot be trusted
+     * for more than a bounded pre-size of the result.
+     */
+    private static int readSize( ByteSource in ) throws IOException {
+        int size = readVarInt( in );
+        if ( size < 0 ) {
+            throw new IOException( "negative sequence size " + size );
+        }
+        return size;
+    }
+
+    private static int readVarInt( ByteSource in ) throws IOException {
+        int result = 0;
+        for ( int shift = 0; shift < 35; shift += 7 ) {
+            int b = in.read();
+            result |= ( b & 0x7f ) << shift;
+            if ( ( b & 0x80 ) == 0 ) {
+                return result;
+            }
+        }
+        throw new IOException( "malformed varint" );
+    }
+
+    /**
+     * Write the 64 bits of v as unsigned varint, 1 to 10 bytes.
+     */
+    private static void writeVarLong( ByteSink out, long v ) throws IOException {
+        while ( ( v & ~0x7fL ) != 0 ) {
+            out.write( (int) ( v & 0x7f ) | 0x80 );
+            v >>>= 7;
+        }
+        out.write( (int) v );
+    }
+
+    private static long readVarLong( ByteSource in ) throws IOException {
+        long result = 0;
+        for ( int shift = 0; shift < 70; shift += 7 ) {
+            int b = in.read();
+            result |= (long) ( b & 0x7f ) << shift;
+            if ( ( b & 0x80 ) == 0 ) {
+                return result;
+            }
+        }
+        throw new IOException( "malformed varlong" );
+    }
+}
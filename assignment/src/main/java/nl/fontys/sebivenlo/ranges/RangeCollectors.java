@@ -0,0 +1,117 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collector;
+
+/**
+ * Collectors for streams of ranges.
+ */
+public final class RangeCollectors {
+
+    private RangeCollectors() {
+    }
+
+    /**
+     * Collect ranges into the minimal sorted list of disjoint ranges covering
+     * the same points. Ranges that meet or overlap are joined, empty ranges
+     * are dropped.
+     *
+     * <p>
+     * No exceptions are involved: joining is done with
+     * {@link Range#between} when ranges are known to meet or overlap. As long
+     * as the input arrives in {@link Range#compareTo} order, each range is
+     * joined with the last result on arrival, without sorting. Input out of
+     * order is sorted and coalesced once, in the finisher. In a parallel
+     * stream every part is coalesced on its own and the combiner merges two
+     * coalesced parts in linear time.</p>
+     *
+     * @param <R> range type
+     * @param <P> demarcation type of range
+     * @param <D> unit of distance
+     * @return the collector
+     */
+    public static <R extends Range<R, P, D>, P extends Comparable<? super P>, D extends Comparable<? super D>>
+            Collector<R, ?, List<R>> coalescing() {
+        return Collector.of( Coalescer<R, P, D>::new, Coalescer::add,
+                Coalescer::combine, Coalescer::finish,
+                Collector.Characteristics.UNORDERED );
+    }
+
+    /**
+     * Mutable accumulation state for {@link #coalescing()}.
+     */
+    private static final class Coalescer<R extends Range<R, P, D>, P extends Comparable<? super P>, D extends Comparable<? super D>> {
+
+        private List<R> ranges = new ArrayList<>();
+        private boolean coalesced = true;
+
+        void add( R range ) {
+            if ( range.start().compareTo( range.end() ) >= 0 ) {
+                return;
+            }
+            if ( coalesced && !ranges.isEmpty()
+                    && range.compareTo( ranges.get( ranges.size() - 1 ) ) < 0 ) {
+                coalesced = false; // out of order, sort in finish
+            }
+            if ( coalesced ) {
+                appendCoalescing( ranges, range );
+            } else {
+                ranges.add( range );
+            }
+        }
+
+        Coalescer<R, P, D> combine( Coalescer<R, P, D> other ) {
+            List<R> a = this.finish();
+            List<R> b = other.finish();
+            List<R> merged = new ArrayList<>( a.size() + b.size() );
+            int i = 0;
+            int j = 0;
+            while ( i < a.size() || j < b.size() ) {
+                R next;
+                if ( j == b.size() || ( i < a.size() && a.get( i ).compareTo( b
+                        .get( j ) ) <= 0 ) ) {
+                    next = a.get( i++ );
+                } else {
+                    next = b.get( j++ );
+                }
+                appendCoalescing( merged, next );
+            }
+            this.ranges = merged;
+            return this;
+        }
+
+        List<R> finish() {
+            if ( !coalesced ) {
+                ranges.sort( null );
+                List<R> sorted = ranges;
+                ranges = new ArrayList<>( sorted.size() );
+                for ( R r : sorted ) {
+                    appendCoalescing( ranges, r );
+                }
+                coalesced = true;
+            }
+            return ranges;
+        }
+
+        /**
+         * Append a range that does not start before the last one, joining it
+         * with the last one when they meet or overlap.
+         */
+        private static <R extends Range<R, P, D>, P extends Comparable<? super P>, D extends Comparable<? super D>>
+                void appendCoalescing( List<R> target, R range ) {
+            int lastIndex = target.size() - 1;
+            if ( lastIndex >= 0 ) {
+                R last = target.get( lastIndex );
+                if ( range.start().compareTo( last.end() ) <= 0 ) {
+                    if ( range.end().compareTo( last.end() ) > 0 ) {
+                        target.set( lastIndex, last.between( last.start(),
+                                range.end() ) );
+                    }
+                    return;
+                }
+            }
+            target.add( range );
+        }
+    }
+}
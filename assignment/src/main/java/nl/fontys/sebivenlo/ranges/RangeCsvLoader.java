@@ -0,0 +1,480 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntFunction;
+
+/**
+ * Loads large CSV files of ranges, one {@code start,end} line per range, into
+ * primitive columns.
+ *
+ * <p>
+ * The file is memory mapped in chunks of about the configured size, each
+ * chunk extended to the end of its last line, and the chunks are parsed in
+ * parallel on a fork join pool. Every chunk fills its own columns, which are
+ * then copied into exactly sized result arrays in file order. Bounds are ints
+ * or instants as produced by {@link java.time.Instant#toString()}; the text
+ * is parsed with {@link RangeTextCodec}, so no String or boxed value is made
+ * per line. Range objects are only created when asked for, by
+ * {@link IntColumns#get(int)} or one of the materializing methods.</p>
+ *
+ * <p>
+ * A malformed line, including one with more than {@code start,end} on it,
+ * fails the load with an IllegalArgumentException naming the byte offset in
+ * the file where parsing failed.</p>
+ */
+public final class RangeCsvLoader {
+
+    /**
+     * Default chunk size, 64 MiB.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 64 << 20;
+    private static final int SCAN_SIZE = 4096;
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final boolean header;
+
+    /**
+     * Create a loader on the common pool, with the default chunk size, for
+     * files without header.
+     */
+    public RangeCsvLoader() {
+        this( ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE, false );
+    }
+
+    /**
+     * Create a loader.
+     *
+     * @param pool to parse on
+     * @param chunkSize approximate number of bytes per parallel task
+     * @param header when true the first line of a file is skipped
+     */
+    public RangeCsvLoader( ForkJoinPool pool, int chunkSize, boolean header ) {
+        if ( chunkSize <= 0 ) {
+            throw new IllegalArgumentException( "chunk size must be positive " + chunkSize );
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.header = header;
+    }
+
+    /**
+     * Load a file with int bounds.
+     *
+     * @param file to load
+     * @return the columns
+     * @throws IOException when the file cannot be read
+     * @throws IllegalArgumentException for a malformed line
+     */
+    public IntColumns loadInts( Path file ) throws IOException {
+        return load( file, IntColumns::new );
+    }
+
+    /**
+     * Load a file with instant bounds.
+     *
+     * @param file to load
+     * @return the columns
+     * @throws IOException when the file cannot be read
+     * @throws IllegalArgumentException for a malformed line
+     */
+    public InstantColumns loadInstants( Path file ) throws IOException {
+        return load( file, InstantColumns::new );
+    }
+
+    private <C extends Columns> C load( Path file, IntFunction<C> columns ) throws IOException {
+        long began = System.nanoTime();
+        List<Chunk<C>> chunks = new ArrayList<>();
+        long size;
+        try ( FileChannel channel = FileChannel.open( file, StandardOpenOption.READ ) ) {
+            size = channel.size();
+            long from = 0;
+            while ( from < size ) {
+                long to = from + chunkSize < size ? lineEnd( channel, from + chunkSize ) : size;
+                if ( to - from > Integer.MAX_VALUE ) {
+                    throw new IOException( "line too long at byte " + from + " of " + file );
+                }
+                MappedByteBuffer text = channel.map( FileChannel.MapMode.READ_ONLY, from, to - from );
+                chunks.add( new Chunk<>( text, from, header && from == 0,
+                        columns.apply( estimateLines( to - from ) ) ) );
+                from = to;
+            }
+        }
+        pool.invoke( new RecursiveAction() {
+            @Override
+            protected void compute() {
+                ForkJoinTask.invokeAll( chunks );
+            }
+        } );
+        int total = 0;
+        for ( Chunk<C> chunk : chunks ) {
+            total = Math.addExact( total, chunk.columns.size );
+        }
+        C result = columns.apply( total );
+        for ( Chunk<C> chunk : chunks ) {
+            chunk.columns.copyInto( result );
+        }
+        result.statistics = new Statistics( total, size, chunks.size(), System.nanoTime() - began );
+        return result;
+    }
+
+    /**
+     * The offset just after the first newline at or after position, or the
+     * file size.
+     */
+    private static long lineEnd( FileChannel channel, long position ) throws IOException {
+        ByteBuffer scan = ByteBuffer.allocate( SCAN_SIZE );
+        long size = channel.size();
+        while ( position < size ) {
+            scan.clear();
+            int n = channel.read( scan, position );
+            for ( int i = 0; i < n; i++ ) {
+                if ( scan.get( i ) == '\n' ) {
+                    return position + i + 1;
+                }
+            }
+            position += Math.max( n, 0 );
+        }
+        return size;
+    }
+
+    /**
+     * A guess at the number of lines, assuming short int lines.
+     */
+    private static int estimateLines( long bytes ) {
+        return (int) Math.min( bytes / 8 + 16, 1 << 20 );
+    }
+
+    private static final class Chunk<C extends Columns> extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+        private final MappedByteBuffer text;
+        private final long offset;
+        private final boolean skipHeader;
+        final C columns;
+
+        Chunk( MappedByteBuffer text, long offset, boolean skipHeader, C columns ) {
+            this.text = text;
+            this.offset = offset;
+            this.skipHeader = skipHeader;
+            this.columns = columns;
+        }
+
+        @Override
+        protected void compute() {
+            RangeTextCodec codec = new RangeTextCodec();
+            codec.begin( text, offset );
+            if ( skipHeader ) {
+                codec.skipLine();
+            }
+            while ( codec.skipToNext() ) {
+                columns.readLine( codec );
+            }
+        }
+    }
+
+    /**
+     * Primitive start and end columns of loaded ranges.
+     */
+    public abstract static class Columns {
+
+        int size;
+        Statistics statistics;
+
+        Columns() {
+        }
+
+        /**
+         * The number of ranges.
+         *
+         * @return the size
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * How the load went.
+         *
+         * @return the statistics
+         */
+        public Statistics statistics() {
+            return statistics;
+        }
+
+        /**
+         * Parse one line at the codec cursor and append it. Only blanks may
+         * follow the end bound on the line.
+         */
+        abstract void readLine( RangeTextCodec codec );
+
+        /**
+         * Append all ranges of this to target, which has room for them.
+         */
+        abstract void copyInto( Columns target );
+    }
+
+    /**
+     * Columns of int bounds.
+     */
+    public static final class IntColumns extends Columns {
+
+        private int[] starts;
+        private int[] ends;
+
+        IntColumns( int capacity ) {
+            starts = new int[ capacity ];
+            ends = new int[ capacity ];
+        }
+
+        @Override
+        void readLine( RangeTextCodec codec ) {
+            if ( size == starts.length ) {
+                starts = Arrays.copyOf( starts, size * 2 );
+                ends = Arrays.copyOf( ends, size * 2 );
+            }
+            int start = codec.parseInt();
+            codec.expect( ',' );
+            int end = codec.parseInt();
+            codec.expectLineEnd();
+            // normalize like the factories
+            starts[ size ] = Math.min( start, end );
+            ends[ size ] = Math.max( start, end );
+            size++;
+        }
+
+        @Override
+        void copyInto( Columns target ) {
+            IntColumns t = (IntColumns) target;
+            System.arraycopy( starts, 0, t.starts, t.size, size );
+            System.arraycopy( ends, 0, t.ends, t.size, size );
+            t.size += size;
+        }
+
+        /**
+         * The starts, in file order. The array is shared, not copied.
+         *
+         * @return the start column
+         */
+        public int[] starts() {
+            return starts;
+        }
+
+        /**
+         * The ends, in file order. The array is shared, not copied.
+         *
+         * @return the end column
+         */
+        public int[] ends() {
+            return ends;
+        }
+
+        /**
+         * Range i, without boxing.
+         *
+         * @param i index
+         * @return the range
+         */
+        public IntRange get( int i ) {
+            return IntRange.of( starts[ i ], ends[ i ] );
+        }
+
+        /**
+         * Materialize all ranges, in parallel.
+         *
+         * @return unmodifiable list of the ranges in file order
+         */
+        public List<IntegerRange> toIntegerRanges() {
+            IntegerRange[] result = new IntegerRange[ size ];
+            Arrays.parallelSetAll( result, i -> IntegerRange.of( starts[ i ], ends[ i ] ) );
+            return Collections.unmodifiableList( Arrays.asList( result ) );
+        }
+    }
+
+    /**
+     * Columns of instant bounds, as epoch second and nano of second.
+     */
+    public static final class InstantColumns extends Columns {
+
+        private long[] startSeconds;
+        private int[] startNanos;
+        private long[] endSeconds;
+        private int[] endNanos;
+
+        InstantColumns( int capacity ) {
+            startSeconds = new long[ capacity ];
+            startNanos = new int[ capacity ];
+            endSeconds = new long[ capacity ];
+            endNanos = new int[ capacity ];
+        }
+
+        @Override
+        void readLine( RangeTextCodec codec ) {
+            if ( size == startSeconds.length ) {
+                int capacity = size * 2;
+                startSeconds = Arrays.copyOf( startSeconds, capacity );
+                startNanos = Arrays.copyOf( startNanos, capacity );
+                endSeconds = Arrays.copyOf( endSeconds, capacity );
+                endNanos = Arrays.copyOf( endNanos, capacity );
+            }
+            long s1 = codec.parseEpochSecond();
+            int n1 = codec.parseNanoAndZone();
+            codec.expect( ',' );
+            long s2 = codec.parseEpochSecond();
+            int n2 = codec.parseNanoAndZone();
+            codec.expectLineEnd();
+            boolean swap = s1 > s2 || ( s1 == s2 && n1 > n2 );
+            startSeconds[ size ] = swap ? s2 : s1;
+            startNanos[ size ] = swap ? n2 : n1;
+            endSeconds[ size ] = swap ? s1 : s2;
+            endNanos[ size ] = swap ? n1 : n2;
+            size++;
+        }
+
+        @Override
+        void copyInto( Columns target ) {
+            InstantColumns t = (InstantColumns) target;
+            System.arraycopy( startSeconds, 0, t.startSeconds, t.size, size );
+            System.arraycopy( startNanos, 0, t.startNanos, t.size, size );
+            System.arraycopy( endSeconds, 0, t.endSeconds, t.size, size );
+            System.arraycopy( endNanos, 0, t.endNanos, t.size, size );
+            t.size += size;
+        }
+
+        /**
+         * The start epoch seconds. The array is shared, not copied.
+         *
+         * @return the column
+         */
+        public long[] startSeconds() {
+            return startSeconds;
+        }
+
+        /**
+         * The start nanos of second. The array is shared, not copied.
+         *
+         * @return the column
+         */
+        public int[] startNanos() {
+            return startNanos;
+        }
+
+        /**
+         * The end epoch seconds. The array is shared, not copied.
+         *
+         * @return the column
+         */
+        public long[] endSeconds() {
+            return endSeconds;
+        }
+
+        /**
+         * The end nanos of second. The array is shared, not copied.
+         *
+         * @return the column
+         */
+        public int[] endNanos() {
+            return endNanos;
+        }
+
+        /**
+         * Range i.
+         *
+         * @param i index
+         * @return the range
+         */
+        public InstantRange get( int i ) {
+            return InstantRange.ofEpochSecond( startSeconds[ i ], startNanos[ i ],
+                    endSeconds[ i ], endNanos[ i ] );
+        }
+
+        /**
+         * Materialize all ranges, in parallel.
+         *
+         * @return unmodifiable list of the ranges in file order
+         */
+        public List<InstantRange> toInstantRanges() {
+            InstantRange[] result = new InstantRange[ size ];
+            Arrays.parallelSetAll( result, this::get );
+            return Collections.unmodifiableList( Arrays.asList( result ) );
+        }
+    }
+
+    /**
+     * Size and speed of a load.
+     */
+    public static final class Statistics {
+
+        private final int ranges;
+        private final long bytes;
+        private final int chunks;
+        private final long nanos;
+
+        Statistics( int ranges, long bytes, int chunks, long nanos ) {
+            this.ranges = ranges;
+            this.bytes = bytes;
+            this.chunks = chunks;
+            this.nanos = Math.max( 1, nanos );
+        }
+
+        /**
+         * @return the number of ranges loaded
+         */
+        public int ranges() {
+            return ranges;
+        }
+
+        /**
+         * @return the file size
+         */
+        public long bytes() {
+            return bytes;
+        }
+
+        /**
+         * @return the number of chunks parsed in parallel
+         */
+        public int chunks() {
+            return chunks;
+        }
+
+        /**
+         * @return wall clock time of the load in nanoseconds
+         */
+        public long nanos() {
+            return nanos;
+        }
+
+        /**
+         * @return bytes loaded per second
+         */
+        public double bytesPerSecond() {
+            return bytes * 1e9 / nanos;
+        }
+
+        /**
+         * @return ranges loaded per second
+         */
+        public double rangesPerSecond() {
+            return ranges * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format( "%d ranges, %d bytes in %d chunks, %.1f ms, %.1f MB/s",
+                    ranges, bytes, chunks, nanos / 1e6, bytesPerSecond() / 1e6 );
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package nl.fontys.sebivenlo.ranges;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder events for range operations.
+ *
+ * <p>
+ * All events are disabled by default. Enable them in a recording, for
+ * instance with a .jfc file setting
+ * {@code nl.fontys.sebivenlo.ranges.Join#enabled} to true, to see where time
+ * goes and, through the stack traces, who calls. A disabled event costs a
+ * check of a constant flag; the event object itself does not escape and is
+ * removed by the JIT. Fields are only filled when the event will be
+ * committed.</p>
+ *
+ * <p>
+ * The pattern is {@code event.begin()} before and {@code event.report(..)}
+ * after the operation.</p>
+ */
+final class RangeEvents {
+
+    private RangeEvents() {
+    }
+
+    /**
+     * Common part of the events: the class of the range operated on.
+     */
+    @Category( "Generic Ranges" )
+    @Enabled( false )
+    abstract static class RangeEvent extends Event {
+
+        @Label( "Range Type" )
+        Class<?> rangeType;
+
+        final void report( Object range ) {
+            if ( shouldCommit() ) {
+                rangeType = range.getClass();
+                commit();
+            }
+        }
+    }
+
+    @Name( "nl.fontys.sebivenlo.ranges.Join" )
+    @Label( "Range Join" )
+    @Description( "Range.joinWith" )
+    static final class Join extends RangeEvent {
+    }
+
+    @Name( "nl.fontys.sebivenlo.ranges.Intersect" )
+    @Label( "Range Intersect" )
+    @Description( "Range.intersectWith" )
+    static final class Intersect extends RangeEvent {
+    }
+
+    @Name( "nl.fontys.sebivenlo.ranges.PunchThrough" )
+    @Label( "Range Punch Through" )
+    @Description( "Range.punchThrough, with stream or sink" )
+    static final class PunchThrough extends RangeEvent {
+    }
+
+    @Name( "nl.fontys.sebivenlo.ranges.NoOverlap" )
+    @Label( "Ranges Do Not Meet Nor Overlap" )
+    @Description( "Range.checkMeetsOrOverlaps failed, an IllegalArgumentException follows" )
+    static final class NoOverlap extends RangeEvent {
+
+        @Label( "Message" )
+        String message;
+
+        void report( Object range, String message ) {
+            if ( shouldCommit() ) {
+                this.message = message;
+                report( range );
+            }
+        }
+    }
+
+    @Name( "nl.fontys.sebivenlo.ranges.Bulk" )
+    @Label( "Range Bulk Operation" )
+    @Description( "Operation on many ranges at once: set algebra, joins, index builds and queries" )
+    static final class Bulk extends RangeEvent {
+
+        @Label( "Operation" )
+        String operation;
+
+        @Label( "Size" )
+        @Description( "Number of input ranges, -1 when not known in advance" )
+        int size;
+
+        /**
+         * Report the operation. The range, when not null, gives the range
+         * type.
+         */
+        void report( String operation, Object range, int size ) {
+            if ( shouldCommit() ) {
+                this.operation = operation;
+                this.size = size;
+                if ( range != null ) {
+                    rangeType = range.getClass();
+                }
+                commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+/**
+ * Canonicalizing factory for ranges that are created over and over with the
+ * same boundaries, like hourly slots or shift windows.
+ *
+ * <p>
+ * The interner is a bounded, direct mapped table: the hash of the boundaries
+ * selects one slot, and a range with other boundaries in that slot is evicted
+ * by the new one. Lookups and updates are single atomic reads and writes, so
+ * the interner can be shared between threads without locking. Under a race
+ * two equal ranges may both be handed out, which is harmless since ranges are
+ * immutable; interned ranges are usually identical, which lets
+ * {@link Range#rangeEquals} return on the identity test.</p>
+ *
+ * <p>
+ * The hit and miss counters tell whether interning pays off for a given
+ * workload. A hit costs one table read and a boundary comparison, a miss
+ * additionally creates the range as the factory would have done anyway.</p>
+ *
+ * @param <R> range type
+ * @param <P> demarcation type of range
+ * @param <D> unit of distance
+ */
+public final class RangeInterner<R extends Range<R, P, D>, P extends Comparable<? super P>, D extends Comparable<? super D>> {
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private final AtomicReferenceArray<R> table;
+    private final int mask;
+    private final BiFunction<? super P, ? super P, ? extends R> factory;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Create an interner.
+     *
+     * @param capacity number of slots, rounded up to a power of two
+     * @param factory to create a range on a miss, e.g. IntegerRange::of
+     */
+    public RangeInterner( int capacity,
+            BiFunction<? super P, ? super P, ? extends R> factory ) {
+        if ( capacity <= 0 || capacity > MAX_CAPACITY ) {
+            throw new IllegalArgumentException( "capacity " + capacity
+                    + " not in 1.." + MAX_CAPACITY );
+        }
+        int slots = Integer.highestOneBit( capacity );
+        if ( slots < capacity ) {
+            slots <<= 1;
+        }
+        this.table = new AtomicReferenceArray<>( slots );
+        this.mask = slots - 1;
+        this.factory = factory;
+    }
+
+    /**
+     * Get the canonical range for the boundaries, creating it on a miss. As
+     * with the range factories, the boundaries may be given in any order. The
+     * lookup relies on the range hash code being
+     * {@link Range#rangeHashCode}, as it is for the leaf classes.
+     *
+     * @param start of range
+     * @param end of range
+     * @return the canonical range
+     */
+    public R of( P start, P end ) {
+        if ( start.compareTo( end ) > 0 ) {
+            P t = start;
+            start = end;
+            end = t;
+        }
+        int hash = 31 * ( 31 + start.hashCode() ) + end.hashCode();
+        int slot = slot( hash );
+        R cached = table.get( slot );
+        if ( cached != null && cached.hashCode() == hash
+                && cached.start().equals( start ) && cached.end().equals( end ) ) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        R created = factory.apply( start, end );
+        table.set( slot, created );
+        return created;
+    }
+
+    /**
+     * Get the canonical instance equal to range. On a miss, range itself
+     * becomes the canonical instance.
+     *
+     * @param range to intern
+     * @return the canonical range
+     */
+    public R intern( R range ) {
+        int hash = range.hashCode();
+        int slot = slot( hash );
+        R cached = table.get( slot );
+        if ( cached != null && ( cached == range || cached.equals( range ) ) ) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        table.set( slot, range );
+        return range;
+    }
+
+    private int slot( int hash ) {
+        return ( hash ^ ( hash >>> 16 ) ) & mask;
+    }
+
+    /**
+     * The number of slots.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return table.length();
+    }
+
+    /**
+     * Number of lookups that returned a cached range.
+     *
+     * @return hits since creation or last reset
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * Number of lookups that stored a new range.
+     *
+     * @return misses since creation or last reset
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Fraction of lookups that were hits.
+     *
+     * @return hits / (hits + misses), 0 when there were no lookups
+     */
+    public double hitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    /**
+     * Reset the hit and miss counters.
+     */
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+    }
+
+    /**
+     * Evict all ranges. The counters are kept.
+     */
+    public void clear() {
+        for ( int i = 0; i < table.length(); i++ ) {
+            table.set( i, null );
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Bulk overlap join between two collections of ranges.
+ *
+ * <p>
+ * Instead of testing every left range against every right range, both sides
+ * are swept in start order. A range stays active until the sweep passes its
+ * end, and each new range is paired with the active ranges of the other side
+ * only. That takes O((N+M) log(N+M) + K) for K overlapping pairs, of which the
+ * log factor is the sort. Input that is already sorted by
+ * {@link Range#compareTo} can use the {@code sorted} variants, which skip the
+ * sort and consume the input lazily.</p>
+ *
+ * <p>
+ * Pairs are reported as (left, right), in no particular order.</p>
+ */
+public final class RangeJoin {
+
+    private RangeJoin() {
+    }
+
+    /**
+     * An overlapping left and right range, optionally with the length of
+     * their overlap.
+     *
+     * @param <R> range type
+     * @param <D> unit of distance
+     */
+    public static final class Pair<R, D> {
+
+        private final R left;
+        private final R right;
+        private final D overlap;
+
+        Pair( R left, R right, D overlap ) {
+            this.left = left;
+            this.right = right;
+            this.overlap = overlap;
+        }
+
+        /**
+         * The range from the left input.
+         *
+         * @return left
+         */
+        public R left() {
+            return left;
+        }
+
+        /**
+         * The range from the right input.
+         *
+         * @return right
+         */
+        public R right() {
+            return right;
+        }
+
+        /**
+         * The overlap length, as computed by {@link Range#overlap}.
+         *
+         * @return the overlap, or null when the join did not compute it
+         */
+        public D overlap() {
+            return overlap;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash( left, right, overlap );
+        }
+
+        @Override
+        public boolean equals( Object obj ) {
+            if ( this == obj ) {
+                return true;
+            }
+            if ( !( obj instanceof Pair ) ) {
+                return false;
+            }
+            Pair<?, ?> other = (Pair<?, ?>) obj;
+            return Objects.equals( left, other.left )
+                    && Objects.equals( right, other.right )
+                    && Objects.equals( overlap, other.overlap );
+        }
+
+        @Override
+        public String toString() {
+            return "(" + left + "," + right
+                    + ( overlap == null ? "" : "," + overlap ) + ")";
+        }
+    }
+
+    /**
+     * Collect all overlapping pairs of left and right.
+     *
+     * @param <R> range type
+     * @param <P> demarcation type of range
+     * @param <D> unit of distance
+     * @param left ranges, in any order
+     * @param right ranges, in any order
+     * @param withOverlap when true each pair carries its overlap length
+     * @return the overlapping pairs
+     */
+    public static <R extends Range<R, P, D>, P extends Comparable<? super P>, D extends Comparable<? super D>>
+            List<Pair<R, D>> join( Iterable<? extends R> left,
+                    Iterable<? extends R> right, boolean withOverlap ) {
+        List<Pair<R, D>> result = new ArrayList<>();
+        forEachOverlapping( left, right, collector( result, withOverlap ) );
+        return result;
+    }
+
+    /**
+     * Collect all overlapping pairs of two streams that are both sorted by
+     * {@link Range#compareTo}.
+     *
+     * @param <R> range type
+     * @param <P> demarcation type of range
+     * @param <D> unit of distance
+     * @param left sorted ranges
+     * @param right sorted ranges
+     * @param withOverlap when true each pair carries its overlap length
+     * @return the overlapping pairs
+     * @throws IllegalArgumentException when an input turns out not to be
+     * sorted
+     */
+    public static <R extends Range<R, P, D>, P extends Comparable<? super P>, D extends Comparable<? super D>>
+            List<Pair<R, D>> joinSorted( Stream<? extends R> left,
+                    Stream<? extends R> right, boolean withOverlap ) {
+        List<Pair<R, D>> result = new ArrayList<>();
+        forEachOverlappingSorted( left, right, collector( result, withOverlap ) );
+        return result;
+    }
+
+    /**
+     * Visit all overlapping pairs of left and right.
+     *
+     * @param <R> range type
+     * @param <P> demarcation type of range
+     * @param <D> unit of distance
+     * @param left ranges, in any order
+     * @param right ranges, in any order
+     * @param action receiving (left, right) for each overlapping pair
+     */
+    public static <R extends Range<R, P, D>, P extends Comparable<? super P>, D extends Comparable<? super D>>
+            void forEachOverlapping( Iterable<? extends R> left,
+                    Iterable<? extends R> right,
+                    BiConsumer<? super R, ? super R> action ) {
+        RangeEvents.Bulk event = new RangeEvents.Bulk();
+        event.begin();
+        sweep( sorted( left ), sorted( right ), action );
+        event.report( "RangeJoin.forEachOverlapping", null, -1 );
+    }
+
+    /**
+     * Visit all overlapping pairs of two streams that are both sorted by
+     * {@link Range#compareTo}. The streams are consumed lazily, only the
+     * currently active ranges are held.
+     *
+     * @param <R> range type
+     * @param <P> demarcation type of range
+     * @param <D> unit of distance
+     * @param left sorted ranges
+     * @param right sorted ranges
+     * @param action receiving (left, right) for each overlapping pair
+     * @throws IllegalArgumentException when an input turns out not to be
+     * sorted
+     */
+    public static <R extends Range<R, P, D>, P extends Comparable<? super P>, D extends Comparable<? super D>>
+            void forEachOverlappingSorted( Stream<? extends R> left,
+                    Stream<? extends R> right,
+                    BiConsumer<? super R, ? super R> action ) {
+        RangeEvents.Bulk event = new RangeEvents.Bulk();
+        event.begin();
+        sweep( left.iterator(), right.iterator(), action );
+        event.report( "RangeJoin.forEachOverlappingSorted", null, -1 );
+    }
+
+    private static <R extends Range<R, P, D>, P extends Comparable<? super P>, D extends Comparable<? super D>>
+            BiConsumer<R, R> collector( List<Pair<R, D>> result,
+                    boolean withOverlap ) {
+        return ( l, r ) -> result.add( new Pair<>( l, r, withOverlap ? l
+                .overlap( r ) : null ) );
+    }
+
+    private static <R extends Range<R, P, D>, P extends Comparable<? super P>, D extends Comparable<? super D>>
+            Iterator<R> sorted( Iterable<? extends R> ranges ) {
+        List<R> list = StreamSupport.stream( ranges.spliterator(), false )
+                .collect( Collectors.toCollection( ArrayList::new ) );
+        list.sort( null );
+        return list.iterator();
+    }
+
+    private static <R extends Range<R, P, D>, P extends Comparable<? super P>, D extends Comparable<? super D>>
+            void sweep( Iterator<? extends R> left, Iterator<? extends R> right,
+                    BiConsumer<? super R, ? super R> action ) {
+        List<R> activeLeft = new ArrayList<>();
+        List<R> activeRight = new ArrayList<>();
+        R x = next( left, null );
+        R y = next( right, null );
+        while ( x != null || y != null ) {
+            if ( y == null || ( x != null && x.compareTo( y ) <= 0 ) ) {
+                if ( y == null && activeRight.isEmpty() ) {
+                    return; // nothing left to pair with
+                }
+                R current = x;
+                x = next( left, current );
+                if ( !isEmpty( current ) ) {
+                    expire( activeRight, current.start() );
+                    for ( R r : activeRight ) {
+                        action.accept( current, r );
+                    }
+                    activeLeft.add( current );
+                }
+            } else {
+                if ( x == null && activeLeft.isEmpty() ) {
+                    return;
+                }
+                R current = y;
+                y = next( right, current );
+                if ( !isEmpty( current ) ) {
+                    expire( activeLeft, current.start() );
+                    for ( R l : activeLeft ) {
+                        action.accept( l, current );
+                    }
+                    activeRight.add( current );
+                }
+            }
+        }
+    }
+
+    private static <R extends Range<R, P, D>, P extends Comparable<? super P>, D extends Comparable<? super D>>
+            R next( Iterator<? extends R> it, R previous ) {
+        if ( !it.hasNext() ) {
+            return null;
+        }
+        R result = it.next();
+        if ( previous != null && previous.compareTo( result ) > 0 ) {
+            throw new IllegalArgumentException( "input not sorted, "
+                    + previous + " before " + result );
+        }
+        return result;
+    }
+
+    /**
+     * Drop the active ranges that end at or before point. Order is not
+     * preserved.
+     */
+    private static <R extends Range<R, P, D>, P extends Comparable<? super P>, D extends Comparable<? super D>>
+            void expire( List<R> active, P point ) {
+        int i = 0;
+        while ( i < active.size() ) {
+            if ( active.get( i ).end().compareTo( point ) <= 0 ) {
+                int last = active.size() - 1;
+                active.set( i, active.get( last ) );
+                active.remove( last );
+            } else {
+                i++;
+            }
+        }
+    }
+
+    private static <P extends Comparable<? super P>> boolean isEmpty( Range<?, P, ?> r ) {
+        return r.start().compareTo( r.end() ) >= 0;
+    }
+}
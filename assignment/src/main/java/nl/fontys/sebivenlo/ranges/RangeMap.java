@@ -0,0 +1,360 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Map from disjoint ranges to values.
+ *
+ * <p>
+ * The entries are kept in a tree keyed by range start, so looking up the
+ * value for a point with {@link #get get} takes O(log N). {@link #put put}
+ * punches the new range through the entries it overlaps: the parts of those
+ * entries outside the new range keep their value, the part inside it is
+ * replaced. When the map is created as coalescing, a new entry that meets a
+ * neighbour with an equal value is joined with that neighbour, so the map
+ * holds the fewest entries possible. Empty ranges are ignored.</p>
+ *
+ * <p>
+ * {@link #subMap subMap} returns a live view on the part of this map within
+ * a query range. Entries sticking out of the view are clipped to it.</p>
+ *
+ * <p>
+ * This class is not thread safe.</p>
+ *
+ * @param <R> range type
+ * @param <P> demarcation type of range
+ * @param <D> unit of distance
+ * @param <V> value type
+ */
+public class RangeMap<R extends Range<R, P, D>, P extends Comparable<? super P>, D extends Comparable<? super D>, V>
+        implements Iterable<Map.Entry<R, V>> {
+
+    private final NavigableMap<P, Map.Entry<R, V>> entries;
+    private final boolean coalescing;
+    private final R bounds;
+
+    /**
+     * Create an empty map that does not coalesce.
+     */
+    public RangeMap() {
+        this( false );
+    }
+
+    /**
+     * Create an empty map.
+     *
+     * @param coalescing when true, entries that meet and have equal values
+     * are joined
+     */
+    public RangeMap( boolean coalescing ) {
+        this( new TreeMap<>(), coalescing, null );
+    }
+
+    private RangeMap( NavigableMap<P, Map.Entry<R, V>> entries,
+            boolean coalescing, R bounds ) {
+        this.entries = entries;
+        this.coalescing = coalescing;
+        this.bounds = bounds;
+    }
+
+    private static <P extends Comparable<? super P>> boolean isEmpty( Range<?, P, ?> r ) {
+        return r.start().compareTo( r.end() ) >= 0;
+    }
+
+    private static <R, V> Map.Entry<R, V> entry( R range, V value ) {
+        return new AbstractMap.SimpleImmutableEntry<>( range, value );
+    }
+
+    /**
+     * Does this map join entries that meet and have equal values.
+     *
+     * @return true if coalescing
+     */
+    public boolean isCoalescing() {
+        return coalescing;
+    }
+
+    /**
+     * Look up the value for a point.
+     *
+     * @param point to look up
+     * @return the value of the range containing point, or null if there is none
+     */
+    public V get( P point ) {
+        Map.Entry<R, V> e = find( point );
+        return e == null ? null : e.getValue();
+    }
+
+    /**
+     * Look up the entry for a point.
+     *
+     * @param point to look up
+     * @return the entry of the range containing point, clipped to this view
+     */
+    public Optional<Map.Entry<R, V>> getEntry( P point ) {
+        Map.Entry<R, V> e = find( point );
+        return e == null ? Optional.empty() : Optional.of( clip( e ) );
+    }
+
+    /**
+     * Is point mapped to a value.
+     *
+     * @param point to test
+     * @return true if a range contains point
+     */
+    public boolean containsPoint( P point ) {
+        return find( point ) != null;
+    }
+
+    private Map.Entry<R, V> find( P point ) {
+        if ( bounds != null && !bounds.contains( point ) ) {
+            return null;
+        }
+        Map.Entry<P, Map.Entry<R, V>> e = entries.floorEntry( point );
+        if ( e == null || !e.getValue().getKey().contains( point ) ) {
+            return null;
+        }
+        return e.getValue();
+    }
+
+    /**
+     * Map all points of range to value. Existing entries overlapping range are
+     * split, and keep their value outside range.
+     *
+     * @param range to map
+     * @param value for the range, not null
+     * @throws IllegalArgumentException when range lies outside this view
+     */
+    public void put( R range, V value ) {
+        Objects.requireNonNull( value, "value" );
+        if ( isEmpty( range ) ) {
+            return;
+        }
+        if ( bounds != null && !bounds.contains( range ) ) {
+            throw new IllegalArgumentException( range + " is outside view "
+                    + bounds );
+        }
+        punch( range );
+        R merged = range;
+        if ( coalescing ) {
+            P start = range.start();
+            P end = range.end();
+            boolean joined = false;
+            Map.Entry<P, Map.Entry<R, V>> lower = entries.lowerEntry( start );
+            if ( lower != null && lower.getValue().getKey().meets( range )
+                    && value.equals( lower.getValue().getValue() ) ) {
+                start = lower.getKey();
+                entries.remove( start );
+                joined = true;
+            }
+            Map.Entry<R, V> higher = entries.get( end );
+            if ( higher != null && value.equals( higher.getValue() ) ) {
+                entries.remove( end );
+                end = higher.getKey().end();
+                joined = true;
+            }
+            if ( joined ) {
+                merged = range.between( start, end );
+            }
+        }
+        entries.put( merged.start(), entry( merged, value ) );
+    }
+
+    /**
+     * Unmap all points of range. Entries sticking out of range are cut.
+     *
+     * @param range to remove
+     * @return true if this map changed
+     */
+    public boolean remove( R range ) {
+        if ( bounds != null ) {
+            if ( !bounds.overlaps( range ) ) {
+                return false;
+            }
+            range = range.between( Range.max( range.start(), bounds.start() ),
+                    Range.min( range.end(), bounds.end() ) );
+        }
+        if ( isEmpty( range ) ) {
+            return false;
+        }
+        return punch( range );
+    }
+
+    /**
+     * Remove the points of punch from the entries.
+     */
+    private boolean punch( R punch ) {
+        boolean changed = false;
+        Map.Entry<P, Map.Entry<R, V>> lower = entries.lowerEntry( punch.start() );
+        if ( lower != null && lower.getValue().getKey().end().compareTo( punch
+                .start() ) > 0 ) {
+            R cut = lower.getValue().getKey();
+            V value = lower.getValue().getValue();
+            entries.put( cut.start(), entry( cut.between( cut.start(), punch
+                    .start() ), value ) );
+            if ( cut.end().compareTo( punch.end() ) > 0 ) {
+                entries.put( punch.end(), entry( cut.between( punch.end(), cut
+                        .end() ), value ) );
+                return true;
+            }
+            changed = true;
+        }
+        NavigableMap<P, Map.Entry<R, V>> hit = entries.subMap( punch.start(),
+                true, punch.end(), false );
+        if ( !hit.isEmpty() ) {
+            Map.Entry<R, V> last = hit.lastEntry().getValue();
+            hit.clear();
+            R cut = last.getKey();
+            if ( cut.end().compareTo( punch.end() ) > 0 ) {
+                entries.put( punch.end(), entry( cut.between( punch.end(), cut
+                        .end() ), last.getValue() ) );
+            }
+            changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * Live view on the part of this map within range. Changes to the view
+     * are visible in this map and vice versa. Putting a range outside the view
+     * throws an IllegalArgumentException.
+     *
+     * @param range of the view
+     * @return the view
+     */
+    public RangeMap<R, P, D, V> subMap( R range ) {
+        R viewBounds = range;
+        if ( bounds != null ) {
+            P start = Range.max( range.start(), bounds.start() );
+            P end = Range.min( range.end(), bounds.end() );
+            viewBounds = range.between( start, Range.max( start, end ) );
+        }
+        return new RangeMap<>( entries, coalescing, viewBounds );
+    }
+
+    /**
+     * The entries within this view, unclipped.
+     */
+    private NavigableMap<P, Map.Entry<R, V>> window() {
+        if ( bounds == null ) {
+            return entries;
+        }
+        P from = bounds.start();
+        if ( isEmpty( bounds ) ) {
+            return entries.subMap( from, true, from, false );
+        }
+        Map.Entry<P, Map.Entry<R, V>> lower = entries.lowerEntry( from );
+        if ( lower != null && lower.getValue().getKey().end().compareTo( from ) > 0 ) {
+            from = lower.getKey();
+        }
+        return entries.subMap( from, true, bounds.end(), false );
+    }
+
+    private Map.Entry<R, V> clip( Map.Entry<R, V> e ) {
+        R r = e.getKey();
+        if ( bounds == null || bounds.contains( r ) ) {
+            return e;
+        }
+        return entry( r.between( Range.max( r.start(), bounds.start() ),
+                Range.min( r.end(), bounds.end() ) ), e.getValue() );
+    }
+
+    /**
+     * The number of entries. Takes O(N) on a sub map view.
+     *
+     * @return the size
+     */
+    public int size() {
+        return window().size();
+    }
+
+    /**
+     * Is this map empty.
+     *
+     * @return true when no ranges are mapped
+     */
+    public boolean isEmpty() {
+        return window().isEmpty();
+    }
+
+    /**
+     * Remove all entries, or all within the view.
+     */
+    public void clear() {
+        if ( bounds == null ) {
+            entries.clear();
+        } else {
+            remove( bounds );
+        }
+    }
+
+    /**
+     * The entries in ascending order. The iterator does not support remove.
+     *
+     * @return the iterator
+     */
+    @Override
+    public Iterator<Map.Entry<R, V>> iterator() {
+        return stream().iterator();
+    }
+
+    /**
+     * Stream the entries in ascending order.
+     *
+     * @return the stream
+     */
+    public Stream<Map.Entry<R, V>> stream() {
+        Stream<Map.Entry<R, V>> result = window().values().stream();
+        return bounds == null ? result : result.map( this::clip );
+    }
+
+    /**
+     * Snapshot of the mapped ranges in ascending order.
+     *
+     * @return unmodifiable list of the ranges
+     */
+    public List<R> ranges() {
+        List<R> result = stream().map( Map.Entry::getKey )
+                .collect( Collectors.toList() );
+        return Collections.unmodifiableList( result );
+    }
+
+    @Override
+    public int hashCode() {
+        return stream().mapToInt( Map.Entry::hashCode ).sum();
+    }
+
+    @Override
+    public boolean equals( Object obj ) {
+        if ( this == obj ) {
+            return true;
+        }
+        if ( !( obj instanceof RangeMap ) ) {
+            return false;
+        }
+        Iterator<?> a = this.iterator();
+        Iterator<?> b = ( (RangeMap<?, ?, ?, ?>) obj ).iterator();
+        while ( a.hasNext() && b.hasNext() ) {
+            if ( !a.next().equals( b.next() ) ) {
+                return false;
+            }
+        }
+        return !a.hasNext() && !b.hasNext();
+    }
+
+    @Override
+    public String toString() {
+        return stream().map( e -> e.getKey() + "=" + e.getValue() )
+                .collect( Collectors.joining( ", ", "{", "}" ) );
+    }
+}
@@ -0,0 +1,341 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * A set of points, stored as the minimal sorted list of disjoint ranges.
+ *
+ * <p>
+ * Ranges that meet or overlap are coalesced on {@link #add add}, so the
+ * stored ranges never meet nor overlap. {@link #remove remove} punches a range
+ * out of the set, splitting a stored range when needed. Both, as well as the
+ * point lookup, take O(log N) (amortized for add and remove, which may swallow
+ * several stored ranges). The set algebra operations {@link #union},
+ * {@link #intersection} and {@link #difference} merge the two sorted
+ * sequences in linear time. All new ranges are created with
+ * {@link Range#between}. Empty ranges are ignored.</p>
+ *
+ * <p>
+ * This class is not thread safe.</p>
+ *
+ * @param <R> range type
+ * @param <P> demarcation type of range
+ * @param <D> unit of distance
+ */
+public class RangeSet<R extends Range<R, P, D>, P extends Comparable<? super P>, D extends Comparable<? super D>>
+        implements Iterable<R> {
+
+    private final NavigableMap<P, R> ranges = new TreeMap<>();
+
+    /**
+     * Create an empty set.
+     */
+    public RangeSet() {
+    }
+
+    /**
+     * Create a set from the given ranges, which may meet or overlap.
+     *
+     * @param <R> range type
+     * @param <P> demarcation type of range
+     * @param <D> unit of distance
+     * @param source ranges to add
+     * @return the set
+     */
+    public static <R extends Range<R, P, D>, P extends Comparable<? super P>, D extends Comparable<? super D>>
+            RangeSet<R, P, D> of( Iterable<? extends R> source ) {
+        RangeSet<R, P, D> result = new RangeSet<>();
+        for ( R r : source ) {
+            result.add( r );
+        }
+        return result;
+    }
+
+    private static <P extends Comparable<? super P>> boolean isEmpty( Range<?, P, ?> r ) {
+        return r.start().compareTo( r.end() ) >= 0;
+    }
+
+    /**
+     * Add all points of range to this set.
+     *
+     * @param range to add
+     * @return true if this set changed
+     */
+    public boolean add( R range ) {
+        if ( isEmpty( range ) ) {
+            return false;
+        }
+        P start = range.start();
+        P end = range.end();
+        Map.Entry<P, R> lower = ranges.floorEntry( start );
+        if ( lower != null && lower.getValue().end().compareTo( start ) >= 0 ) {
+            if ( lower.getValue().contains( range ) ) {
+                return false;
+            }
+            start = lower.getKey();
+            end = Range.max( end, lower.getValue().end() );
+        }
+        NavigableMap<P, R> swallowed = ranges.subMap( start, true, end, true );
+        if ( !swallowed.isEmpty() ) {
+            end = Range.max( end, swallowed.lastEntry().getValue().end() );
+            swallowed.clear();
+        }
+        boolean same = start.equals( range.start() ) && end.equals( range
+                .end() );
+        ranges.put( start, same ? range : range.between( start, end ) );
+        return true;
+    }
+
+    /**
+     * Remove all points of punch from this set.
+     *
+     * @param punch range to knock out
+     * @return true if this set changed
+     */
+    public boolean remove( R punch ) {
+        if ( isEmpty( punch ) ) {
+            return false;
+        }
+        boolean changed = false;
+        Map.Entry<P, R> lower = ranges.lowerEntry( punch.start() );
+        if ( lower != null && lower.getValue().end().compareTo( punch.start() ) > 0 ) {
+            R cut = lower.getValue();
+            ranges.put( cut.start(), cut.between( cut.start(), punch.start() ) );
+            if ( cut.end().compareTo( punch.end() ) > 0 ) {
+                ranges.put( punch.end(), cut.between( punch.end(), cut.end() ) );
+                return true;
+            }
+            changed = true;
+        }
+        NavigableMap<P, R> hit = ranges.subMap( punch.start(), true,
+                punch.end(), false );
+        if ( !hit.isEmpty() ) {
+            R last = hit.lastEntry().getValue();
+            hit.clear();
+            if ( last.end().compareTo( punch.end() ) > 0 ) {
+                ranges.put( punch.end(), last.between( punch.end(), last.end() ) );
+            }
+            changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * Is point part of this set.
+     *
+     * @param point to test
+     * @return true if one of the ranges contains point
+     */
+    public boolean contains( P point ) {
+        Map.Entry<P, R> e = ranges.floorEntry( point );
+        return e != null && e.getValue().contains( point );
+    }
+
+    /**
+     * Are all points of range part of this set. An empty range is always
+     * contained.
+     *
+     * @param range to test
+     * @return true if one of the stored ranges contains range
+     */
+    public boolean contains( R range ) {
+        if ( isEmpty( range ) ) {
+            return true;
+        }
+        Map.Entry<P, R> e = ranges.floorEntry( range.start() );
+        return e != null && e.getValue().contains( range );
+    }
+
+    /**
+     * The number of disjoint ranges.
+     *
+     * @return the size
+     */
+    public int size() {
+        return ranges.size();
+    }
+
+    /**
+     * Is this set empty.
+     *
+     * @return true when no ranges are stored
+     */
+    public boolean isEmpty() {
+        return ranges.isEmpty();
+    }
+
+    /**
+     * Remove all ranges.
+     */
+    public void clear() {
+        ranges.clear();
+    }
+
+    /**
+     * The disjoint ranges in ascending order. The iterator supports remove.
+     *
+     * @return the iterator
+     */
+    @Override
+    public Iterator<R> iterator() {
+        return ranges.values().iterator();
+    }
+
+    /**
+     * Stream the disjoint ranges in ascending order.
+     *
+     * @return the stream
+     */
+    public Stream<R> stream() {
+        return ranges.values().stream();
+    }
+
+    /**
+     * Snapshot of the disjoint ranges in ascending order.
+     *
+     * @return unmodifiable list of the ranges
+     */
+    public List<R> ranges() {
+        return Collections.unmodifiableList( new ArrayList<>( ranges.values() ) );
+    }
+
+    /**
+     * Compute the set of points in this or other, or both.
+     *
+     * @param other set
+     * @return a new set
+     */
+    public RangeSet<R, P, D> union( RangeSet<R, P, D> other ) {
+        RangeEvents.Bulk event = new RangeEvents.Bulk();
+        event.begin();
+        RangeSet<R, P, D> result = new RangeSet<>();
+        Iterator<R> a = this.iterator();
+        Iterator<R> b = other.iterator();
+        R x = next( a );
+        R y = next( b );
+        R current = null;
+        while ( x != null || y != null ) {
+            R r;
+            if ( y == null || ( x != null && x.compareTo( y ) <= 0 ) ) {
+                r = x;
+                x = next( a );
+            } else {
+                r = y;
+                y = next( b );
+            }
+            if ( current == null ) {
+                current = r;
+            } else if ( r.start().compareTo( current.end() ) <= 0 ) {
+                if ( r.end().compareTo( current.end() ) > 0 ) {
+                    current = current.between( current.start(), r.end() );
+                }
+            } else {
+                result.ranges.put( current.start(), current );
+                current = r;
+            }
+        }
+        if ( current != null ) {
+            result.ranges.put( current.start(), current );
+        }
+        event.report( "RangeSet.union", null, size() + other.size() );
+        return result;
+    }
+
+    /**
+     * Compute the set of points in both this and other.
+     *
+     * @param other set
+     * @return a new set
+     */
+    public RangeSet<R, P, D> intersection( RangeSet<R, P, D> other ) {
+        RangeEvents.Bulk event = new RangeEvents.Bulk();
+        event.begin();
+        RangeSet<R, P, D> result = new RangeSet<>();
+        Iterator<R> a = this.iterator();
+        Iterator<R> b = other.iterator();
+        R x = next( a );
+        R y = next( b );
+        while ( x != null && y != null ) {
+            P start = Range.max( x.start(), y.start() );
+            P end = Range.min( x.end(), y.end() );
+            if ( start.compareTo( end ) < 0 ) {
+                result.ranges.put( start, x.between( start, end ) );
+            }
+            if ( x.end().compareTo( y.end() ) <= 0 ) {
+                x = next( a );
+            } else {
+                y = next( b );
+            }
+        }
+        event.report( "RangeSet.intersection", null, size() + other.size() );
+        return result;
+    }
+
+    /**
+     * Compute the set of points in this but not in other.
+     *
+     * @param other set
+     * @return a new set
+     */
+    public RangeSet<R, P, D> difference( RangeSet<R, P, D> other ) {
+        RangeEvents.Bulk event = new RangeEvents.Bulk();
+        event.begin();
+        RangeSet<R, P, D> result = new RangeSet<>();
+        Iterator<R> b = other.iterator();
+        R y = next( b );
+        for ( R x : this ) {
+            while ( y != null && y.end().compareTo( x.start() ) <= 0 ) {
+                y = next( b );
+            }
+            P start = x.start();
+            while ( y != null && y.start().compareTo( x.end() ) < 0 ) {
+                if ( y.start().compareTo( start ) > 0 ) {
+                    result.ranges.put( start, x.between( start, y.start() ) );
+                }
+                start = Range.max( start, y.end() );
+                if ( y.end().compareTo( x.end() ) > 0 ) {
+                    break; // y also cuts the next x
+                }
+                y = next( b );
+            }
+            if ( start.compareTo( x.end() ) < 0 ) {
+                result.ranges.put( start, start.equals( x.start() ) ? x : x
+                        .between( start, x.end() ) );
+            }
+        }
+        event.report( "RangeSet.difference", null, size() + other.size() );
+        return result;
+    }
+
+    private static <T> T next( Iterator<T> it ) {
+        return it.hasNext() ? it.next() : null;
+    }
+
+    @Override
+    public int hashCode() {
+        return ranges.hashCode();
+    }
+
+    @Override
+    public boolean equals( Object obj ) {
+        if ( this == obj ) {
+            return true;
+        }
+        if ( !( obj instanceof RangeSet ) ) {
+            return false;
+        }
+        return ranges.equals( ( (RangeSet<?, ?, ?>) obj ).ranges );
+    }
+
+    @Override
+    public String toString() {
+        return ranges.values().toString();
+    }
+}
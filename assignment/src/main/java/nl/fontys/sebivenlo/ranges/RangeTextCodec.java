@@ -0,0 +1,643 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Parses and formats ranges in the {@code [start,end)} notation of
+ * {@link Range#rangeToString()}, directly on buffers.
+ *
+ * <p>
+ * Text is read from a {@link CharBuffer} or from a {@link ByteBuffer} holding
+ * ASCII (or UTF-8) text, which includes memory mapped files. Parsing starts
+ * at the buffer position, skips leading white space and leaves the position
+ * just after the closing parenthesis; on malformed input an
+ * IllegalArgumentException is thrown and the position is left unchanged.
+ * Like the factories, parsing normalizes a range given end first.
+ * Bounds are either ints or instants in the ISO-8601 form of
+ * {@link Instant#toString()}: {@code 2021-03-01T10:15:30.5Z}, with a four
+ * digit year, 0 to 9 fraction digits and UTC designator {@code Z}. Dates are
+ * converted to epoch seconds with integer arithmetic, so parsing creates no
+ * objects but the resulting range.</p>
+ *
+ * <p>
+ * Formatting writes into an {@link Appendable} or a ByteBuffer. The text of a
+ * range is composed in a scratch array of this codec. A StringBuilder or a
+ * {@link Writer} gets that array directly, so again no String is created.
+ * Other Appendables get it as one CharSequence, a reused view on the array;
+ * whether that creates a String is up to the Appendable. Instants outside the years 0 to 9999 are formatted with
+ * {@link DateTimeFormatter#ISO_INSTANT}, which does allocate.</p>
+ *
+ * <p>
+ * A codec keeps its scratch state between calls. It is not thread safe; use
+ * one per thread.</p>
+ */
+public final class RangeTextCodec {
+
+    private static final int SECONDS_PER_DAY = 86_400;
+    private static final long DAYS_0000_TO_1970 = 719_528L;
+    private static final int MAX_TEXT = 80;
+
+    private final char[] scratch = new char[ MAX_TEXT ];
+    private final CharBuffer view = CharBuffer.wrap( scratch );
+
+    // parse cursor over either chars or bytes
+    private CharBuffer chars;
+    private ByteBuffer bytes;
+    private int pos;
+    private int limit;
+    private long origin; // added to pos in error messages
+
+    /**
+     * Create a codec.
+     */
+    public RangeTextCodec() {
+    }
+
+    //
+    // parsing
+    //
+
+    /**
+     * Skip white space and tell whether more text follows.
+     *
+     * @param in text
+     * @return true if in has a non white space character left
+     */
+    public boolean hasNext( CharBuffer in ) {
+        open( in, null );
+        skipWhitespace();
+        in.position( pos );
+        return pos < limit;
+    }
+
+    /**
+     * Skip white space and tell whether more text follows.
+     *
+     * @param in ASCII text
+     * @return true if in has a non white space character left
+     */
+    public boolean hasNext( ByteBuffer in ) {
+        open( null, in );
+        skipWhitespace();
+        in.position( pos );
+        return pos < limit;
+    }
+
+    /**
+     * Parse a range with int bounds.
+     *
+     * @param in text
+     * @return the range
+     * @throws IllegalArgumentException for malformed text
+     */
+    public IntRange parseIntRange( CharBuffer in ) {
+        open( in, null );
+        return parseInts();
+    }
+
+    /**
+     * Parse a range with int bounds.
+     *
+     * @param in ASCII text
+     * @return the range
+     * @throws IllegalArgumentException for malformed text
+     */
+    public IntRange parseIntRange( ByteBuffer in ) {
+        open( null, in );
+        return parseInts();
+    }
+
+    /**
+     * Parse a range with int bounds.
+     *
+     * @param in text
+     * @return the range
+     * @throws IllegalArgumentException for malformed text
+     */
+    public IntegerRange parseIntegerRange( CharBuffer in ) {
+        return parseIntRange( in ).toIntegerRange();
+    }
+
+    /**
+     * Parse a range with int bounds.
+     *
+     * @param in ASCII text
+     * @return the range
+     * @throws IllegalArgumentException for malformed text
+     */
+    public IntegerRange parseIntegerRange( ByteBuffer in ) {
+        return parseIntRange( in ).toIntegerRange();
+    }
+
+    /**
+     * Parse a range with instant bounds.
+     *
+     * @param in text
+     * @return the range
+     * @throws IllegalArgumentException for malformed text
+     */
+    public InstantRange parseInstantRange( CharBuffer in ) {
+        open( in, null );
+        return parseInstants();
+    }
+
+    /**
+     * Parse a range with instant bounds.
+     *
+     * @param in ASCII text
+     * @return the range
+     * @throws IllegalArgumentException for malformed text
+     */
+    public InstantRange parseInstantRange( ByteBuffer in ) {
+        open( null, in );
+        return parseInstants();
+    }
+
+    private void open( CharBuffer chars, ByteBuffer bytes ) {
+        this.chars = chars;
+        this.bytes = bytes;
+        this.pos = chars != null ? chars.position() : bytes.position();
+        this.limit = chars != null ? chars.limit() : bytes.limit();
+        this.origin = 0;
+    }
+
+    /**
+     * Move the buffer past the parsed text and drop the reference to it.
+     */
+    private void commit() {
+        if ( chars != null ) {
+            chars.position( pos );
+        } else {
+            bytes.position( pos );
+        }
+        chars = null;
+        bytes = null;
+    }
+
+    private IntRange parseInts() {
+        int start = this.pos;
+        try {
+            skipWhitespace();
+            expect( '[' );
+            int a = parseInt();
+            expect( ',' );
+            int b = parseInt();
+            expect( ')' );
+            commit();
+            return IntRange.of( a, b );
+        } catch ( IllegalArgumentException e ) {
+            chars = null;
+            bytes = null;
+            throw e;
+        } finally {
+            this.pos = start;
+        }
+    }
+
+    private InstantRange parseInstants() {
+        int start = this.pos;
+        try {
+            skipWhitespace();
+            expect( '[' );
+            long s1 = parseEpochSecond();
+            int n1 = parseNanoAndZone();
+            expect( ',' );
+            long s2 = parseEpochSecond();
+            int n2 = parseNanoAndZone();
+            expect( ')' );
+            commit();
+            return InstantRange.ofEpochSecond( s1, n1, s2, n2 );
+        } catch ( IllegalArgumentException e ) {
+            chars = null;
+            bytes = null;
+            throw e;
+        } finally {
+            this.pos = start;
+        }
+    }
+
+    private int peek() {
+        if ( pos >= limit ) {
+            return -1;
+        }
+        return chars != null ? chars.get( pos ) : bytes.get( pos ) & 0xff;
+    }
+
+    private void skipWhitespace() {
+        int c;
+        while ( ( c = peek() ) == ' ' || c == '\t' || c == '\n' || c == '\r' ) {
+            pos++;
+        }
+    }
+
+    void expect( char c ) {
+        if ( peek() != c ) {
+            throw malformed( "expected '" + c + "'" );
+        }
+        pos++;
+    }
+
+    private IllegalArgumentException malformed( String reason ) {
+        return new IllegalArgumentException( "malformed range at position "
+                + ( origin + pos ) + ": " + reason );
+    }
+
+    int parseInt() {
+        boolean negative = peek() == '-';
+        if ( negative ) {
+            pos++;
+        }
+        int digits = 0;
+        long value = 0; // negated, to reach Integer.MIN_VALUE
+        int c;
+        while ( ( c = peek() ) >= '0' && c <= '9' ) {
+            value = value * 10 - ( c - '0' );
+            if ( value < Integer.MIN_VALUE ) {
+                throw malformed( "int overflow" );
+            }
+            pos++;
+            digits++;
+        }
+        if ( digits == 0 ) {
+            throw malformed( "expected digit" );
+        }
+        if ( !negative && value == Integer.MIN_VALUE ) {
+            throw malformed( "int overflow" );
+        }
+        return (int) ( negative ? value : -value );
+    }
+
+    private int digits( int count ) {
+        int value = 0;
+        for ( int i = 0; i < count; i++ ) {
+            int c = peek();
+            if ( c < '0' || c > '9' ) {
+                throw malformed( "expected digit" );
+            }
+            value = value * 10 + ( c - '0' );
+            pos++;
+        }
+        return value;
+    }
+
+    private int field( int count, int min, int max, String name ) {
+        int value = digits( count );
+        if ( value < min || value > max ) {
+            throw malformed( name + " out of range" );
+        }
+        return value;
+    }
+
+    /**
+     * Parse yyyy-MM-ddTHH:mm:ss to epoch seconds.
+     */
+    long parseEpochSecond() {
+        int year = digits( 4 );
+        expect( '-' );
+        int month = field( 2, 1, 12, "month" );
+        expect( '-' );
+        int day = field( 2, 1, monthLength( year, month ), "day" );
+        expect( 'T' );
+        int hour = field( 2, 0, 23, "hour" );
+        expect( ':' );
+        int minute = field( 2, 0, 59, "minute" );
+        expect( ':' );
+        int second = field( 2, 0, 59, "second" );
+        return epochDay( year, month, day ) * SECONDS_PER_DAY + hour * 3600
+                + minute * 60 + second;
+    }
+
+    /**
+     * Parse an optional fraction of 1 to 9 digits and the Z.
+     */
+    int parseNanoAndZone() {
+        int nano = 0;
+        if ( peek() == '.' ) {
+            pos++;
+            int scale = 100_000_000;
+            int c;
+            while ( ( c = peek() ) >= '0' && c <= '9' ) {
+                if ( scale == 0 ) {
+                    throw malformed( "more than 9 fraction digits" );
+                }
+                nano += ( c - '0' ) * scale;
+                scale /= 10;
+                pos++;
+            }
+            if ( scale == 100_000_000 ) {
+                throw malformed( "expected digit" );
+            }
+        }
+        expect( 'Z' );
+        return nano;
+    }
+
+    private static boolean isLeap( long year ) {
+        return ( year & 3 ) == 0 && ( year % 100 != 0 || year % 400 == 0 );
+    }
+
+    private static int monthLength( int year, int month ) {
+        switch ( month ) {
+            case 2:
+                return isLeap( year ) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Days since 1970-01-01 for a year of 0 or later, the same computation as
+     * {@link java.time.LocalDate#toEpochDay()}.
+     */
+    private static long epochDay( int year, int month, int day ) {
+        long total = 365L * year + ( year + 3 ) / 4 - ( year + 99 ) / 100
+                + ( year + 399 ) / 400;
+        total += ( 367 * month - 362 ) / 12;
+        total += day - 1;
+        if ( month > 2 ) {
+            total -= isLeap( year ) ? 1 : 2;
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    //
+    // cursor for RangeCsvLoader, which reads lines of start,end
+    //
+
+    /**
+     * Start reading lines from in, which starts at offset origin of a file.
+     * Error messages give positions in the file.
+     */
+    void begin( ByteBuffer in, long origin ) {
+        open( null, in );
+        this.origin = origin;
+    }
+
+    /**
+     * Skip white space, true if more text follows.
+     */
+    boolean skipToNext() {
+        skipWhitespace();
+        return pos < limit;
+    }
+
+    /**
+     * Skip trailing blanks, fail unless the line or the text ends there.
+     */
+    void expectLineEnd() {
+        int c;
+        while ( ( c = peek() ) == ' ' || c == '\t' || c == '\r' ) {
+            pos++;
+        }
+        if ( c != '\n' && c != -1 ) {
+            throw malformed( "expected end of line" );
+        }
+    }
+
+    void skipLine() {
+        int c;
+        while ( ( c = peek() ) != -1 && c != '\n' ) {
+            pos++;
+        }
+    }
+
+    int position() {
+        return pos;
+    }
+
+    //
+    // formatting
+    //
+
+    /**
+     * Append the text of range.
+     *
+     * @param range to format
+     * @param out to append to
+     * @throws IOException from out
+     */
+    public void format( Range<?, Integer, ?> range, Appendable out ) throws IOException {
+        append( composeInts( range.start(), range.end() ), out );
+    }
+
+    /**
+     * Append the text of range, without boxing.
+     *
+     * @param range to format
+     * @param out to append to
+     * @throws IOException from out
+     */
+    public void format( IntRange range, Appendable out ) throws IOException {
+        append( composeInts( range.startInt(), range.endInt() ), out );
+    }
+
+    /**
+     * Append the text of range.
+     *
+     * @param range to format
+     * @param out to append to
+     * @throws IOException from out
+     */
+    public void format( InstantRange range, Appendable out ) throws IOException {
+        int n = composeInstants( range );
+        if ( n < 0 ) {
+            out.append( '[' );
+            DateTimeFormatter.ISO_INSTANT.formatTo( range.start(), out );
+            out.append( ',' );
+            DateTimeFormatter.ISO_INSTANT.formatTo( range.end(), out );
+            out.append( ')' );
+        } else {
+            append( n, out );
+        }
+    }
+
+    /**
+     * Put the ASCII text of range.
+     *
+     * @param range to format
+     * @param out to put into
+     * @throws BufferOverflowException when the text does not fit; nothing is
+     * written then
+     */
+    public void format( Range<?, Integer, ?> range, ByteBuffer out ) {
+        put( composeInts( range.start(), range.end() ), out );
+    }
+
+    /**
+     * Put the ASCII text of range, without boxing.
+     *
+     * @param range to format
+     * @param out to put into
+     * @throws BufferOverflowException when the text does not fit; nothing is
+     * written then
+     */
+    public void format( IntRange range, ByteBuffer out ) {
+        put( composeInts( range.startInt(), range.endInt() ), out );
+    }
+
+    /**
+     * Put the ASCII text of range.
+     *
+     * @param range to format
+     * @param out to put into
+     * @throws BufferOverflowException when the text does not fit; nothing is
+     * written then
+     */
+    public void format( InstantRange range, ByteBuffer out ) {
+        int n = composeInstants( range );
+        if ( n < 0 ) {
+            String text = range.toString(); // outside 0000-9999, rare
+            if ( out.remaining() < text.length() ) {
+                throw new BufferOverflowException();
+            }
+            for ( int i = 0; i < text.length(); i++ ) {
+                out.put( (byte) text.charAt( i ) );
+            }
+        } else {
+            put( n, out );
+        }
+    }
+
+    private void append( int n, Appendable out ) throws IOException {
+        if ( out instanceof StringBuilder ) {
+            ( (StringBuilder) out ).append( scratch, 0, n );
+        } else if ( out instanceof Writer ) {
+            // Writer.append(CharSequence, int, int) would go through a String
+            ( (Writer) out ).write( scratch, 0, n );
+        } else {
+            view.clear();
+            out.append( view, 0, n );
+        }
+    }
+
+    private void put( int n, ByteBuffer out ) {
+        if ( out.remaining() < n ) {
+            throw new BufferOverflowException();
+        }
+        for ( int i = 0; i < n; i++ ) {
+            out.put( (byte) scratch[ i ] );
+        }
+    }
+
+    private int composeInts( int start, int end ) {
+        int n = 0;
+        scratch[ n++ ] = '[';
+        n = writeInt( start, n );
+        scratch[ n++ ] = ',';
+        n = writeInt( end, n );
+        scratch[ n++ ] = ')';
+        return n;
+    }
+
+    private int writeInt( int value, int n ) {
+        long v = value;
+        if ( v < 0 ) {
+            scratch[ n++ ] = '-';
+            v = -v;
+        }
+        int first = n;
+        do {
+            scratch[ n++ ] = (char) ( '0' + v % 10 );
+            v /= 10;
+        } while ( v != 0 );
+        reverse( first, n );
+        return n;
+    }
+
+    private void reverse( int from, int to ) {
+        for ( int i = from, j = to - 1; i < j; i++, j-- ) {
+            char t = scratch[ i ];
+            scratch[ i ] = scratch[ j ];
+            scratch[ j ] = t;
+        }
+    }
+
+    /**
+     * Compose the text of range in scratch.
+     *
+     * @return the length, or -1 when a year is outside 0 to 9999
+     */
+    private int composeInstants( InstantRange range ) {
+        int n = 0;
+        scratch[ n++ ] = '[';
+        n = writeInstant( range.startEpochSecond(), range.startNano(), n );
+        if ( n < 0 ) {
+            return -1;
+        }
+        scratch[ n++ ] = ',';
+        n = writeInstant( range.endEpochSecond(), range.endNano(), n );
+        if ( n < 0 ) {
+            return -1;
+        }
+        scratch[ n++ ] = ')';
+        return n;
+    }
+
+    /**
+     * Write an instant like Instant.toString does, with the civil date
+     * computed as in {@link java.time.LocalDate#ofEpochDay(long)}.
+     */
+    private int writeInstant( long epochSecond, int nano, int n ) {
+        long epochDay = Math.floorDiv( epochSecond, SECONDS_PER_DAY );
+        int secondOfDay = Math.floorMod( epochSecond, SECONDS_PER_DAY );
+        long zeroDay = epochDay + DAYS_0000_TO_1970 - 60; // from March 1st
+        if ( zeroDay < 0 ) {
+            return -1;
+        }
+        long year = ( 400 * zeroDay + 591 ) / 146_097;
+        long dayOfYear = zeroDay - ( 365 * year + year / 4 - year / 100 + year / 400 );
+        if ( dayOfYear < 0 ) {
+            year--;
+            dayOfYear = zeroDay - ( 365 * year + year / 4 - year / 100 + year / 400 );
+        }
+        int marchMonth = (int) ( dayOfYear * 5 + 2 ) / 153;
+        int month = ( marchMonth + 2 ) % 12 + 1;
+        int day = (int) dayOfYear - ( marchMonth * 306 + 5 ) / 10 + 1;
+        year += marchMonth / 10;
+        if ( year > 9999 ) {
+            return -1;
+        }
+        n = pad( (int) year, 4, n );
+        scratch[ n++ ] = '-';
+        n = pad( month, 2, n );
+        scratch[ n++ ] = '-';
+        n = pad( day, 2, n );
+        scratch[ n++ ] = 'T';
+        n = pad( secondOfDay / 3600, 2, n );
+        scratch[ n++ ] = ':';
+        n = pad( secondOfDay / 60 % 60, 2, n );
+        scratch[ n++ ] = ':';
+        n = pad( secondOfDay % 60, 2, n );
+        if ( nano != 0 ) {
+            scratch[ n++ ] = '.';
+            if ( nano % 1_000_000 == 0 ) {
+                n = pad( nano / 1_000_000, 3, n );
+            } else if ( nano % 1000 == 0 ) {
+                n = pad( nano / 1000, 6, n );
+            } else {
+                n = pad( nano, 9, n );
+            }
+        }
+        scratch[ n++ ] = 'Z';
+        return n;
+    }
+
+    private int pad( int value, int width, int n ) {
+        for ( int i = n + width - 1; i >= n; i-- ) {
+            scratch[ i ] = (char) ( '0' + value % 10 );
+            value /= 10;
+        }
+        return n + width;
+    }
+}
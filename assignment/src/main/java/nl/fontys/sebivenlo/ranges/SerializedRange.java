@@ -0,0 +1,75 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.ObjectStreamException;
+
+/**
+ * Serialization proxy for the leaf ranges. The leaf classes replace themselves
+ * with this proxy in {@code writeReplace}, so that an ObjectOutputStream
+ * writes a type tag plus the {@link RangeCodec} encoding instead of the
+ * default serialized form with its boxed boundaries. On reading, the proxy
+ * resolves to the leaf range again.
+ */
+final class SerializedRange implements Externalizable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final byte INTEGER_RANGE = 1;
+    private static final byte INSTANT_RANGE = 2;
+    private static final byte INT_RANGE = 3;
+
+    private Range<?, ?, ?> range;
+
+    /**
+     * Required by Externalizable.
+     */
+    public SerializedRange() {
+    }
+
+    SerializedRange( Range<?, ?, ?> range ) {
+        this.range = range;
+    }
+
+    @Override
+    public void writeExternal( ObjectOutput out ) throws IOException {
+        if ( range instanceof IntegerRange ) {
+            out.writeByte( INTEGER_RANGE );
+            RangeCodec.writeIntegerRange( out, (IntegerRange) range );
+        } else if ( range instanceof InstantRange ) {
+            out.writeByte( INSTANT_RANGE );
+            RangeCodec.writeInstantRange( out, (InstantRange) range );
+        } else if ( range instanceof IntRange ) {
+            out.writeByte( INT_RANGE );
+            RangeCodec.writeIntegerRange( out, (IntRange) range );
+        } else {
+            throw new InvalidObjectException( "no compact form for "
+                    + range.getClass().getName() );
+        }
+    }
+
+    @Override
+    public void readExternal( ObjectInput in ) throws IOException {
+        byte tag = in.readByte();
+        switch ( tag ) {
+            case INTEGER_RANGE:
+                range = RangeCodec.readIntegerRange( in );
+                break;
+            case INSTANT_RANGE:
+                range = RangeCodec.readInstantRange( in );
+                break;
+            case INT_RANGE:
+                range = IntRange.from( RangeCodec.readIntegerRange( in ) );
+                break;
+            default:
+                throw new InvalidObjectException( "unknown range tag " + tag );
+        }
+    }
+
+    private Object readResolve() throws ObjectStreamException {
+        return range;
+    }
+}
@@ -0,0 +1,78 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BookingCalendarTest {
+
+    @Test
+    void t01ReserveAndRelease() {
+        BookingCalendar<IntegerRange, Integer, Integer> calendar = new BookingCalendar<>();
+
+        assertThat( calendar.tryReserve( IntegerRange.of( 10, 20 ) ) ).isTrue();
+        assertThat( calendar.tryReserve( IntegerRange.of( 20, 30 ) ) ).isTrue();
+        assertThat( calendar.tryReserve( IntegerRange.of( 15, 25 ) ) ).isFalse();
+        assertThat( calendar.tryReserve( IntegerRange.of( 5, 11 ) ) ).isFalse();
+        assertThat( calendar.tryReserve( IntegerRange.of( 10, 12 ) ) ).isFalse();
+        assertThat( calendar.isFree( IntegerRange.of( 10, 12 ) ) ).isFalse();
+        assertThat( calendar.isFree( IntegerRange.of( 0, 10 ) ) ).isTrue();
+        assertThat( calendar.bookingAt( 19 ) ).contains( IntegerRange.of( 10, 20 ) );
+        assertThat( calendar.bookingAt( 30 ) ).isEmpty();
+
+        assertThat( calendar.release( IntegerRange.of( 10, 19 ) ) ).isFalse();
+        assertThat( calendar.release( IntegerRange.of( 10, 20 ) ) ).isTrue();
+        assertThat( calendar.release( IntegerRange.of( 10, 20 ) ) ).isFalse();
+        assertThat( calendar.tryReserve( IntegerRange.of( 5, 11 ) ) ).isTrue();
+        assertThat( calendar.bookings() ).containsExactly( IntegerRange.of( 5, 11 ),
+                IntegerRange.of( 20, 30 ) );
+    }
+
+    @Test
+    void t02RejectsEmptyRange() {
+        BookingCalendar<IntegerRange, Integer, Integer> calendar = new BookingCalendar<>();
+
+        assertThatThrownBy( () -> calendar.tryReserve( IntegerRange.of( 3, 3 ) ) )
+                .isInstanceOf( IllegalArgumentException.class );
+    }
+
+    @Test
+    void t03ConcurrentBookingsNeverOverlap() throws Exception {
+        BookingCalendar<IntegerRange, Integer, Integer> calendar = new BookingCalendar<>();
+        ExecutorService pool = Executors.newFixedThreadPool( 4 );
+        List<Future<Integer>> results = new ArrayList<>();
+        for ( int t = 0; t < 4; t++ ) {
+            long seed = t;
+            results.add( pool.submit( () -> {
+                Random random = new Random( seed );
+                int booked = 0;
+                for ( int i = 0; i < 5000; i++ ) {
+                    int start = random.nextInt( 10000 );
+                    if ( calendar.tryReserve( IntegerRange.of( start, start + 1
+                            + random.nextInt( 20 ) ) ) ) {
+                        booked++;
+                    }
+                }
+                return booked;
+            } ) );
+        }
+        int booked = 0;
+        for ( Future<Integer> f : results ) {
+            booked += f.get();
+        }
+        pool.shutdown();
+
+        List<IntegerRange> bookings = calendar.bookings();
+        assertThat( bookings ).hasSize( booked );
+        for ( int i = 1; i < bookings.size(); i++ ) {
+            assertThat( bookings.get( i - 1 ).overlaps( bookings.get( i ) ) ).isFalse();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The processor is driven by hand, so every step can be checked.
+ */
+public class CoalescingProcessorTest {
+
+    /**
+     * Upstream subscription that only records what was requested.
+     */
+    static class Upstream implements Flow.Subscription {
+
+        long requested;
+        boolean cancelled;
+
+        @Override
+        public void request( long n ) {
+            requested += n;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    /**
+     * Subscriber that collects what it receives and requests nothing by
+     * itself.
+     */
+    static class Collector<T> implements Flow.Subscriber<T> {
+
+        final List<T> items = new ArrayList<>();
+        Flow.Subscription subscription;
+        boolean completed;
+        Throwable error;
+
+        @Override
+        public void onSubscribe( Flow.Subscription subscription ) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext( T item ) {
+            items.add( item );
+        }
+
+        @Override
+        public void onError( Throwable throwable ) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+
+    static IntegerRange r( int start, int end ) {
+        return IntegerRange.of( start, end );
+    }
+
+    @Test
+    void t01EmitsWhenWatermarkPasses() {
+        CoalescingProcessor<IntegerRange, Integer, Integer> processor
+                = new CoalescingProcessor<>( start -> start - 10, 4 );
+        Upstream upstream = new Upstream();
+        Collector<IntegerRange> out = new Collector<>();
+        processor.onSubscribe( upstream );
+        processor.subscribe( out );
+        out.subscription.request( 10 );
+
+        assertThat( upstream.requested ).isEqualTo( 4 );
+        processor.onNext( r( 0, 10 ) );
+        processor.onNext( r( 10, 20 ) );
+        processor.onNext( r( 15, 25 ) );
+        processor.onNext( r( 30, 40 ) );
+        assertThat( out.items ).isEmpty();
+        assertThat( processor.openRanges() ).isEqualTo( 2 );
+
+        processor.onNext( r( 36, 50 ) );
+        assertThat( out.items ).containsExactly( r( 0, 25 ) );
+        assertThat( processor.watermark() ).isEqualTo( 26 );
+
+        processor.onComplete();
+        assertThat( out.items ).containsExactly( r( 0, 25 ), r( 30, 50 ) );
+        assertThat( out.completed ).isTrue();
+    }
+
+    @Test
+    void t02HonoursBackpressure() {
+        CoalescingProcessor<IntegerRange, Integer, Integer> processor
+                = new CoalescingProcessor<>( start -> start, 2 );
+        Upstream upstream = new Upstream();
+        Collector<IntegerRange> out = new Collector<>();
+        processor.onSubscribe( upstream );
+        processor.subscribe( out );
+
+        assertThat( upstream.requested ).isEqualTo( 2 );
+        processor.onNext( r( 0, 1 ) );
+        processor.onNext( r( 2, 3 ) );
+        processor.onNext( r( 4, 5 ) ); // two final, buffer full
+        assertThat( out.items ).isEmpty();
+        assertThat( upstream.requested ).isEqualTo( 3 );
+
+        out.subscription.request( 1 );
+        assertThat( out.items ).containsExactly( r( 0, 1 ) );
+        assertThat( upstream.requested ).isEqualTo( 4 );
+    }
+
+    @Test
+    void t03AdvanceWatermarkForInstants() {
+        CoalescingProcessor<InstantRange, Instant, Duration> processor
+                = new CoalescingProcessor<>( start -> start.minusSeconds( 60 ) );
+        Upstream upstream = new Upstream();
+        Collector<InstantRange> out = new Collector<>();
+        processor.onSubscribe( upstream );
+        processor.subscribe( out );
+        out.subscription.request( Long.MAX_VALUE );
+        Instant t = Instant.parse( "2021-03-01T10:00:00Z" );
+
+        processor.onNext( InstantRange.of( t, t.plusSeconds( 5 ) ) );
+        processor.onNext( InstantRange.of( t.plusSeconds( 5 ), t.plusSeconds( 9 ) ) );
+        assertThat( out.items ).isEmpty();
+        processor.advanceWatermark( t.plusSeconds( 10 ) );
+        assertThat( out.items ).containsExactly( InstantRange.of( t, t.plusSeconds( 9 ) ) );
+    }
+
+    @Test
+    void t04BadRequestAndSecondSubscriber() {
+        CoalescingProcessor<IntegerRange, Integer, Integer> processor
+                = new CoalescingProcessor<>( start -> start );
+        Upstream upstream = new Upstream();
+        Collector<IntegerRange> out = new Collector<>();
+        processor.onSubscribe( upstream );
+        processor.subscribe( out );
+        out.subscription.request( 0 );
+
+        assertThat( out.error ).isInstanceOf( IllegalArgumentException.class );
+        assertThat( upstream.cancelled ).isTrue();
+
+        Collector<IntegerRange> second = new Collector<>();
+        processor.subscribe( second );
+        assertThat( second.error ).isInstanceOf( IllegalStateException.class );
+    }
+}
@@ -0,0 +1,117 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConcurrentIntervalIndexTest {
+
+    static IntegerRange r( int start, int end ) {
+        return IntegerRange.of( start, end );
+    }
+
+    @Test
+    void t01InsertRemoveQuery() {
+        ConcurrentIntervalIndex<IntegerRange, Integer, Integer> index = new ConcurrentIntervalIndex<>();
+
+        assertThat( index.insert( r( 10, 20 ) ) ).isTrue();
+        assertThat( index.insert( r( 5, 12 ) ) ).isTrue();
+        assertThat( index.insert( r( 15, 30 ) ) ).isTrue();
+        assertThat( index.insert( r( 10, 20 ) ) ).isFalse();
+        assertThat( index.insert( r( 7, 7 ) ) ).isFalse();
+        assertThat( index.ranges() ).containsExactly( r( 5, 12 ), r( 10, 20 ), r( 15, 30 ) );
+        assertThat( index.containing( 11 ) ).containsExactly( r( 5, 12 ), r( 10, 20 ) );
+        assertThat( index.containing( 20 ) ).containsExactly( r( 15, 30 ) );
+        assertThat( index.overlapping( r( 12, 15 ) ) ).containsExactly( r( 10, 20 ) );
+
+        assertThat( index.remove( r( 10, 20 ) ) ).isTrue();
+        assertThat( index.remove( r( 10, 20 ) ) ).isFalse();
+        assertThat( index.contains( r( 5, 12 ) ) ).isTrue();
+        assertThat( index.containing( 11 ) ).containsExactly( r( 5, 12 ) );
+        assertThat( index.size() ).isEqualTo( 2 );
+    }
+
+    @Test
+    void t02IteratorIsSnapshot() {
+        ConcurrentIntervalIndex<IntegerRange, Integer, Integer> index = new ConcurrentIntervalIndex<>();
+        index.insert( r( 1, 2 ) );
+        index.insert( r( 3, 4 ) );
+        Iterator<IntegerRange> it = index.iterator();
+
+        index.insert( r( 0, 9 ) );
+        index.remove( r( 3, 4 ) );
+
+        List<IntegerRange> seen = new ArrayList<>();
+        it.forEachRemaining( seen::add );
+        assertThat( seen ).containsExactly( r( 1, 2 ), r( 3, 4 ) );
+        assertThat( index.stream().collect( Collectors.toList() ) )
+                .containsExactly( r( 0, 9 ), r( 1, 2 ) );
+    }
+
+    @Test
+    void t03RandomAgainstIntervalIndex() {
+        Random random = new Random( 25 );
+        ConcurrentIntervalIndex<IntegerRange, Integer, Integer> index = new ConcurrentIntervalIndex<>();
+        List<IntegerRange> present = new ArrayList<>();
+        for ( int round = 0; round < 2000; round++ ) {
+            int start = random.nextInt( 200 );
+            IntegerRange range = r( start, start + 1 + random.nextInt( 20 ) );
+            if ( random.nextInt( 3 ) == 0 ) {
+                assertThat( index.remove( range ) ).isEqualTo( present.remove( range ) );
+            } else if ( !present.contains( range ) ) {
+                assertThat( index.insert( range ) ).isTrue();
+                present.add( range );
+            }
+            IntervalIndex<IntegerRange, Integer, Integer> expected = IntervalIndex.of( present );
+            int point = random.nextInt( 230 );
+            IntegerRange query = r( point, point + random.nextInt( 10 ) );
+            assertThat( index.containing( point ) )
+                    .containsExactlyInAnyOrderElementsOf( expected.containing( point ) );
+            assertThat( index.overlapping( query ) )
+                    .containsExactlyInAnyOrderElementsOf( expected.overlapping( query ) );
+        }
+        assertThat( index.size() ).isEqualTo( present.size() );
+    }
+
+    @Test
+    void t04ConcurrentWriters() throws Exception {
+        ConcurrentIntervalIndex<IntegerRange, Integer, Integer> index = new ConcurrentIntervalIndex<>();
+        ExecutorService pool = Executors.newFixedThreadPool( 4 );
+        try {
+            List<Future<?>> work = new ArrayList<>();
+            for ( int t = 0; t < 4; t++ ) {
+                int base = t * 100_000;
+                work.add( pool.submit( () -> {
+                    for ( int i = 0; i < 5000; i++ ) {
+                        index.insert( r( base + i, base + i + 5 ) );
+                    }
+                    for ( int i = 0; i < 5000; i += 2 ) {
+                        index.remove( r( base + i, base + i + 5 ) );
+                    }
+                } ) );
+                work.add( pool.submit( () -> {
+                    for ( int i = 0; i < 500; i++ ) {
+                        assertThat( index.containing( base + 3 ) ).hasSizeLessThanOrEqualTo( 4 );
+                    }
+                } ) );
+            }
+            for ( Future<?> f : work ) {
+                f.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat( index.size() ).isEqualTo( 4 * 2500 );
+        assertThat( index.containing( 100_003 ) ).containsExactly( r( 100_001, 100_006 ),
+                r( 100_003, 100_008 ) );
+    }
+}
@@ -0,0 +1,75 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DepthProfileTest {
+
+    static IntegerRange r( int start, int end ) {
+        return IntegerRange.of( start, end );
+    }
+
+    @Test
+    void t01StepFunction() {
+        DepthProfile<IntegerRange, Integer, Integer> profile = DepthProfile.of( List.of(
+                r( 0, 10 ), r( 5, 15 ), r( 10, 20 ), r( 25, 30 ), r( 7, 7 ) ) );
+
+        assertThat( profile.segments() ).extracting( s -> s.range() + "x" + s.depth() )
+                .containsExactly( "[0,5)x1", "[5,15)x2", "[15,20)x1", "[20,25)x0", "[25,30)x1" );
+        assertThat( profile.maxDepth() ).isEqualTo( 2 );
+        assertThat( profile.maxDepthRanges() ).containsExactly( r( 5, 15 ) );
+        assertThat( profile.depthAt( 14 ) ).isEqualTo( 2 );
+        assertThat( profile.depthAt( 30 ) ).isZero();
+    }
+
+    @Test
+    void t02Empty() {
+        DepthProfile<IntegerRange, Integer, Integer> profile = DepthProfile.of( List.of() );
+
+        assertThat( profile.segments() ).isEmpty();
+        assertThat( profile.maxDepth() ).isZero();
+        assertThat( profile.depthAt( 3 ) ).isZero();
+    }
+
+    @Test
+    void t03Instants() {
+        Instant t = Instant.parse( "2021-03-01T10:00:00Z" );
+        DepthProfile<InstantRange, Instant, Duration> profile = DepthProfile.of( List.of(
+                InstantRange.of( t, t.plusSeconds( 60 ) ),
+                InstantRange.of( t.plusSeconds( 30 ), t.plusSeconds( 90 ) ) ) );
+
+        assertThat( profile.maxDepth() ).isEqualTo( 2 );
+        assertThat( profile.maxDepthRanges() )
+                .containsExactly( InstantRange.of( t.plusSeconds( 30 ), t.plusSeconds( 60 ) ) );
+    }
+
+    @Test
+    void t04LargeRandomAgainstCounting() {
+        Random random = new Random( 18 );
+        int domain = 50_000;
+        List<IntegerRange> ranges = new ArrayList<>();
+        int[] depth = new int[ domain + 100 ];
+        for ( int i = 0; i < 20_000; i++ ) {
+            int start = random.nextInt( domain );
+            IntegerRange range = r( start, start + random.nextInt( 100 ) );
+            ranges.add( range );
+            for ( int p = range.start(); p < range.end(); p++ ) {
+                depth[ p ]++;
+            }
+        }
+        DepthProfile<IntegerRange, Integer, Integer> profile = DepthProfile.of( ranges );
+
+        int max = 0;
+        for ( int p = 0; p < depth.length; p++ ) {
+            assertThat( profile.depthAt( p ) ).isEqualTo( depth[ p ] );
+            max = Math.max( max, depth[ p ] );
+        }
+        assertThat( profile.maxDepth() ).isEqualTo( max );
+    }
+}
@@ -0,0 +1,92 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class FreeSlotIndexTest {
+
+    static IntegerRange r( int start, int end ) {
+        return IntegerRange.of( start, end );
+    }
+
+    @Test
+    void t01IntegerSlots() {
+        FreeSlotIndex<IntegerRange, Integer, Integer> index = FreeSlotIndex.of( List.of(
+                r( 10, 20 ), r( 22, 30 ), r( 30, 40 ), r( 45, 50 ), r( 60, 70 ) ) );
+
+        assertThat( index.gaps() ).containsExactly( r( 20, 22 ), r( 40, 45 ), r( 50, 60 ) );
+        assertThat( index.earliestFreeStart( 0, 10 ) ).isEqualTo( 0 );
+        assertThat( index.earliestFreeStart( 5, 10 ) ).isEqualTo( 50 );
+        assertThat( index.earliestFreeStart( 15, 3 ) ).isEqualTo( 40 );
+        assertThat( index.earliestFreeStart( 41, 4 ) ).isEqualTo( 41 );
+        assertThat( index.earliestFreeStart( 41, 5 ) ).isEqualTo( 50 );
+        assertThat( index.earliestFreeStart( 55, 6 ) ).isEqualTo( 70 );
+        assertThat( index.earliestGap( 15, 3 ) ).contains( r( 40, 45 ) );
+        assertThat( index.earliestGap( 55, 6 ) ).isEmpty();
+    }
+
+    @Test
+    void t02DurationSlots() {
+        Instant t = Instant.parse( "2021-03-01T09:00:00Z" );
+        FreeSlotIndex<InstantRange, Instant, Duration> index = FreeSlotIndex.of( List.of(
+                InstantRange.of( t, t.plus( Duration.ofMinutes( 50 ) ) ),
+                InstantRange.of( t.plus( Duration.ofMinutes( 70 ) ), t.plus( Duration.ofMinutes( 90 ) ) ),
+                InstantRange.of( t.plus( Duration.ofMinutes( 120 ) ), t.plus( Duration.ofMinutes( 180 ) ) ) ) );
+
+        assertThat( index.earliestFreeStart( t, Duration.ofMinutes( 30 ) ) )
+                .isEqualTo( t.plus( Duration.ofMinutes( 90 ) ) );
+        assertThat( index.earliestFreeStart( t, Duration.ofMinutes( 15 ) ) )
+                .isEqualTo( t.plus( Duration.ofMinutes( 50 ) ) );
+        assertThatThrownBy( () -> index.earliestFreeStart( t, Duration.ofMinutes( -1 ) ) )
+                .isInstanceOf( IllegalArgumentException.class );
+    }
+
+    @Test
+    void t02bGapAfterFreeLeadTime() {
+        FreeSlotIndex<IntegerRange, Integer, Integer> index = FreeSlotIndex.of( List.of(
+                r( 10, 20 ), r( 50, 60 ) ) );
+
+        assertThat( index.earliestFreeStart( 0, 5 ) ).isEqualTo( 0 );
+        assertThat( index.earliestGap( 0, 5 ) ).contains( r( 20, 50 ) );
+        assertThat( index.earliestGap( 25, 5 ) ).contains( r( 25, 50 ) );
+        assertThat( index.earliestGap( 0, 31 ) ).isEmpty();
+    }
+
+    @Test
+    void t03RandomAgainstScan() {
+        Random random = new Random( 19 );
+        for ( int round = 0; round < 300; round++ ) {
+            List<IntegerRange> bookings = new ArrayList<>();
+            boolean[] busy = new boolean[ 400 ];
+            for ( int i = 0; i < 30; i++ ) {
+                int start = random.nextInt( 300 );
+                IntegerRange booking = r( start, start + random.nextInt( 30 ) );
+                bookings.add( booking );
+                for ( int p = booking.start(); p < booking.end(); p++ ) {
+                    busy[ p ] = true;
+                }
+            }
+            FreeSlotIndex<IntegerRange, Integer, Integer> index = FreeSlotIndex.of( bookings );
+            for ( int q = 0; q < 20; q++ ) {
+                int notBefore = random.nextInt( 340 );
+                int length = 1 + random.nextInt( 20 );
+                int expected = notBefore;
+                for ( int p = notBefore; p < expected + length; p++ ) {
+                    if ( busy[ p ] ) {
+                        expected = p + 1;
+                    }
+                }
+                assertThat( index.earliestFreeStart( notBefore, length ) )
+                        .as( "from %d length %d in %s", notBefore, length, index.bookings() )
+                        .isEqualTo( expected );
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class InstantRangeFileTest {
+
+    @TempDir
+    Path dir;
+
+    List<InstantRange> ranges = RangeCodecTest.randomInstantRanges( 2000, 12L );
+
+    InstantRangeFile writeAndOpen() throws IOException {
+        Path file = dir.resolve( "ranges.bin" );
+        InstantRangeFile.write( file, ranges );
+        return InstantRangeFile.open( file );
+    }
+
+    @Test
+    void t01QueriesMatchLinearScan() throws IOException {
+        try ( InstantRangeFile file = writeAndOpen() ) {
+            assertThat( file.size() ).isEqualTo( ranges.size() );
+            for ( InstantRange probe : RangeCodecTest.randomInstantRanges( 200, 13L ) ) {
+                Instant point = probe.start();
+                List<InstantRange> containing = ranges.stream()
+                        .filter( r -> r.contains( point ) )
+                        .collect( Collectors.toList() );
+                List<InstantRange> overlapping = ranges.stream()
+                        .filter( r -> r.overlaps( probe ) )
+                        .collect( Collectors.toList() );
+
+                assertThat( file.contains( point ) ).isEqualTo( !containing.isEmpty() );
+                assertThat( file.containing( point ) )
+                        .containsExactlyInAnyOrderElementsOf( containing );
+                assertThat( file.overlapping( probe ) )
+                        .containsExactlyInAnyOrderElementsOf( overlapping );
+            }
+        }
+    }
+
+    @Test
+    void t02RecordsSortedByStart() throws IOException {
+        try ( InstantRangeFile file = writeAndOpen() ) {
+            for ( long i = 1; i < file.size(); i++ ) {
+                assertThat( file.get( i - 1 ).compareTo( file.get( i ) ) ).isLessThanOrEqualTo( 0 );
+            }
+        }
+    }
+
+    @Test
+    void t03HalfOpen() throws IOException {
+        Instant a = Instant.EPOCH;
+        Instant b = a.plus( 1, ChronoUnit.HOURS );
+        ranges = List.of( InstantRange.of( a, b ) );
+        try ( InstantRangeFile file = writeAndOpen() ) {
+            assertThat( file.contains( a ) ).isTrue();
+            assertThat( file.contains( b ) ).isFalse();
+            assertThat( file.overlapping( InstantRange.of( b, b.plusSeconds( 1 ) ) ) ).isEmpty();
+        }
+    }
+
+    @Test
+    void t04RejectsOtherFiles() throws IOException {
+        Path file = dir.resolve( "other.bin" );
+        Files.write( file, new byte[ 32 ] );
+
+        assertThatThrownBy( () -> InstantRangeFile.open( file ) )
+                .isInstanceOf( IOException.class );
+    }
+
+    @Test
+    void t05LongEarlyRangeDoesNotForceScan() throws IOException {
+        Instant t = Instant.EPOCH;
+        ranges = new ArrayList<>();
+        ranges.add( InstantRange.of( t, t.plus( 100_000, ChronoUnit.HOURS ) ) );
+        for ( int i = 1; i < 50_000; i++ ) {
+            Instant start = t.plus( i, ChronoUnit.HOURS );
+            ranges.add( InstantRange.of( start, start.plus( 30, ChronoUnit.MINUTES ) ) );
+        }
+        Instant point = t.plus( 40_000, ChronoUnit.HOURS ).plus( 10, ChronoUnit.MINUTES );
+        try ( InstantRangeFile file = writeAndOpen() ) {
+            assertThat( file.containing( point ) ).containsExactly( ranges.get( 0 ),
+                    ranges.get( 40_000 ) );
+            assertThat( file.recordsRead( point ) ).isLessThan( 100 );
+        }
+    }
+}
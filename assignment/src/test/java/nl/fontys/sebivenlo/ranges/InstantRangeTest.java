@@ -3,6 +3,11 @@ package nl.fontys.sebivenlo.ranges;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 public class InstantRangeTest extends RangeTestBase<InstantRange, Instant, Duration> {
 
@@ -33,4 +38,40 @@ public class InstantRangeTest extends RangeTestBase<InstantRange, Instant, Durat
         }
         return daf;
     }
+
+    /**
+     * The primitive nano lengths must agree with the Duration ones.
+     *
+     * @param rp1 range 1
+     * @param rp2 range 2
+     */
+    @ParameterizedTest
+    @CsvSource( {
+            "ab,cd", // disjoint
+            "ab,bc", // meets
+            "ac,bd", // overlap
+            "ad,bc", // contained
+            "ab,ab", // equal
+    } )
+    void t19NanoLengths( String rp1, String rp2 ) {
+        InstantRange r1 = createRange( rp1 );
+        InstantRange r2 = createRange( rp2 );
+
+        assertThat( r1.lengthNanos() ).isEqualTo( r1.length().toNanos() );
+        assertThat( r1.overlapNanos( r2 ) ).isEqualTo( r1.overlap( r2 ).toNanos() )
+                .isEqualTo( r2.overlapNanos( r1 ) );
+    }
+
+    /**
+     * The primitive factory normalizes nanos and boundary order.
+     */
+    @Test
+    void t20OfEpochSecond() {
+        InstantRange range = InstantRange.ofEpochSecond( 10, 1_500_000_000L, 3, -1 );
+
+        assertThat( range.start() ).isEqualTo( Instant.ofEpochSecond( 2, 999_999_999 ) );
+        assertThat( range.end() ).isEqualTo( Instant.ofEpochSecond( 11, 500_000_000 ) );
+        assertThat( range.startEpochSecond() ).isEqualTo( 2 );
+        assertThat( range.endNano() ).isEqualTo( 500_000_000 );
+    }
 }
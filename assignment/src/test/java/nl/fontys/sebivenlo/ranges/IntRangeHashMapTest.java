@@ -0,0 +1,54 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * IntRangeHashMap checked against a HashMap doing the same operations.
+ */
+public class IntRangeHashMapTest {
+
+    @Test
+    void t01PutGetRemove() {
+        IntRangeHashMap<String> map = new IntRangeHashMap<>();
+
+        assertThat( map.put( 3, 5, "a" ) ).isNull();
+        assertThat( map.put( 5, 3, "b" ) ).isEqualTo( "a" );
+        assertThat( map.put( IntRange.of( Integer.MIN_VALUE, Integer.MAX_VALUE ), "c" ) ).isNull();
+        assertThat( map.get( IntegerRange.of( 3, 5 ) ) ).isEqualTo( "b" );
+        assertThat( map.get( Integer.MIN_VALUE, Integer.MAX_VALUE ) ).isEqualTo( "c" );
+        assertThat( map.get( 1, 0 ) ).isNull();
+        assertThat( map.size() ).isEqualTo( 2 );
+        assertThat( map.remove( 3, 5 ) ).isEqualTo( "b" );
+        assertThat( map.containsKey( 3, 5 ) ).isFalse();
+        assertThat( map.toString() ).isEqualTo( "{[-2147483648,2147483647)=c}" );
+    }
+
+    @Test
+    void t02RandomAgainstHashMap() {
+        Random random = new Random( 20 );
+        IntRangeHashMap<Integer> map = new IntRangeHashMap<>();
+        Map<IntRange, Integer> expected = new HashMap<>();
+        for ( int i = 0; i < 100_000; i++ ) {
+            IntRange key = IntRange.of( random.nextInt( 200 ), random.nextInt( 200 ) );
+            switch ( random.nextInt( 3 ) ) {
+                case 0:
+                    assertThat( map.put( key, i ) ).isEqualTo( expected.put( key, i ) );
+                    break;
+                case 1:
+                    assertThat( map.remove( key ) ).isEqualTo( expected.remove( key ) );
+                    break;
+                default:
+                    assertThat( map.get( key ) ).isEqualTo( expected.get( key ) );
+            }
+        }
+        assertThat( map.size() ).isEqualTo( expected.size() );
+        Map<IntRange, Integer> visited = new HashMap<>();
+        map.forEach( visited::put );
+        assertThat( visited ).isEqualTo( expected );
+    }
+}
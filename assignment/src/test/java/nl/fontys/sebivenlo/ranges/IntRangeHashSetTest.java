@@ -0,0 +1,43 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IntRangeHashSetTest {
+
+    @Test
+    void t01Deduplicates() {
+        IntRangeHashSet set = new IntRangeHashSet( 4 );
+
+        assertThat( set.add( 10, 20 ) ).isTrue();
+        assertThat( set.add( IntegerRange.of( 20, 10 ) ) ).isFalse();
+        assertThat( set.add( 10, 21 ) ).isTrue();
+        assertThat( set.contains( IntRange.of( 10, 21 ) ) ).isTrue();
+        assertThat( set.remove( 21, 10 ) ).isTrue();
+        assertThat( set ).containsExactly( IntRange.of( 10, 20 ) );
+    }
+
+    @Test
+    void t02RandomAgainstHashSet() {
+        Random random = new Random( 20 );
+        IntRangeHashSet set = new IntRangeHashSet();
+        Set<IntRange> expected = new HashSet<>();
+        for ( int i = 0; i < 100_000; i++ ) {
+            int start = random.nextInt( 300 );
+            int end = random.nextInt( 300 );
+            if ( random.nextInt( 3 ) == 0 ) {
+                assertThat( set.remove( start, end ) )
+                        .isEqualTo( expected.remove( IntRange.of( start, end ) ) );
+            } else {
+                assertThat( set.add( start, end ) )
+                        .isEqualTo( expected.add( IntRange.of( start, end ) ) );
+            }
+        }
+        assertThat( set.size() ).isEqualTo( expected.size() );
+        assertThat( set ).containsExactlyInAnyOrderElementsOf( expected );
+    }
+}
@@ -0,0 +1,68 @@
+package nl.fontys.sebivenlo.ranges;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IntRangeTest extends RangeTestBase<IntRange, Integer, Integer> {
+
+    RangeTestDataFactory<IntRange, Integer, Integer> daf;
+    Integer[] points = {42, 51, 55, 1023, 1610, 2840};
+
+    @Override
+    RangeTestDataFactory helper() {
+        if (null == daf) {
+            daf = new RangeTestDataFactory<>(points) {
+                @Override
+                IntRange createRange(Integer start, Integer end) {
+                    return IntRange.of(start, end);
+                }
+
+                @Override
+                Integer distance(Integer a, Integer b) {
+                    return b - a;
+                }
+            };
+        }
+        return daf;
+    }
+
+    /**
+     * The primitive overlap length must agree with the boxed IntegerRange one.
+     *
+     * @param rp1 range 1
+     * @param rp2 range 2
+     */
+    @ParameterizedTest
+    @CsvSource( {
+            "ab,cd", // disjoint
+            "ab,bc", // meets
+            "ac,bd", // overlap
+            "ad,bc", // contained
+            "ab,ab", // equal
+    } )
+    void t19OverlapLengthPrimitive( String rp1, String rp2 ) {
+        IntRange r1 = (IntRange) createRange( rp1 );
+        IntRange r2 = (IntRange) createRange( rp2 );
+
+        assertThat( r1.overlapLength( r2 ) )
+                .isEqualTo( r1.toIntegerRange().overlap( r2.toIntegerRange() ) )
+                .isEqualTo( r2.overlapLength( r1 ) );
+    }
+
+    /**
+     * IntRange and IntegerRange convert into each other.
+     */
+    @ParameterizedTest
+    @CsvSource( { "ab", "cf", "dd" } )
+    void t20ConvertIntegerRange( String rp ) {
+        IntRange r = (IntRange) createRange( rp );
+        IntegerRange boxed = r.toIntegerRange();
+
+        assertThat( boxed ).extracting( "start", "end" )
+                .containsExactly( r.start(), r.end() );
+        assertThat( IntRange.from( boxed ) ).isEqualTo( r );
+        assertThat( r.hashCode() ).isEqualTo( boxed.hashCode() );
+    }
+}
@@ -0,0 +1,109 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * IntegerRangeBitmap checked against a {@link BitSet} holding the same values,
+ * offset by BASE so that chunks of negative numbers are involved.
+ */
+public class IntegerRangeBitmapTest {
+
+    static final int BASE = -200_000;
+    static final int DOMAIN = 400_000;
+
+    static IntegerRange r( int start, int end ) {
+        return IntegerRange.of( start, end );
+    }
+
+    static IntegerRangeBitmap randomBitmap( Random random, BitSet model ) {
+        IntegerRangeBitmap bitmap = new IntegerRangeBitmap();
+        int maxLength = new int[] { 1, 100, 70_000 }[ random.nextInt( 3 ) ];
+        for ( int i = 0; i < 200; i++ ) {
+            int start = random.nextInt( DOMAIN );
+            int end = Math.min( DOMAIN, start + 1 + random.nextInt( maxLength ) );
+            bitmap.add( r( BASE + start, BASE + end ) );
+            model.set( start, end );
+        }
+        return bitmap;
+    }
+
+    static void assertSameValues( IntegerRangeBitmap bitmap, BitSet model ) {
+        List<IntegerRange> expected = new ArrayList<>();
+        for ( int s = model.nextSetBit( 0 ); s >= 0; s = model.nextSetBit( s ) ) {
+            int e = model.nextClearBit( s );
+            expected.add( r( BASE + s, BASE + e ) );
+            s = e;
+        }
+        assertThat( bitmap.runs() ).isEqualTo( expected );
+        assertThat( bitmap.cardinality() ).isEqualTo( model.cardinality() );
+    }
+
+    @Test
+    void t01RunsAreJoinedAcrossChunks() {
+        IntegerRangeBitmap bitmap = new IntegerRangeBitmap();
+        bitmap.add( r( -10, 65_000 ) );
+        bitmap.add( r( 65_000, 70_000 ) );
+        bitmap.add( 80_000 );
+
+        assertThat( bitmap.runs() ).containsExactly( r( -10, 70_000 ), r( 80_000, 80_001 ) );
+        assertThat( bitmap.contains( -10 ) ).isTrue();
+        assertThat( bitmap.contains( 70_000 ) ).isFalse();
+        assertThat( bitmap.cardinality() ).isEqualTo( 70_011 );
+    }
+
+    @Test
+    void t02WholeDomain() {
+        IntegerRangeBitmap bitmap = new IntegerRangeBitmap();
+        bitmap.add( r( Integer.MIN_VALUE, Integer.MAX_VALUE ) );
+
+        assertThat( bitmap.runs() ).containsExactly( r( Integer.MIN_VALUE, Integer.MAX_VALUE ) );
+        assertThat( bitmap.cardinality() ).isEqualTo( 0xFFFF_FFFFL );
+        assertThatThrownBy( () -> bitmap.add( Integer.MAX_VALUE ) )
+                .isInstanceOf( IllegalArgumentException.class );
+    }
+
+    @Test
+    void t03OptimizeShrinks() {
+        IntegerRangeBitmap bitmap = new IntegerRangeBitmap();
+        for ( int i = 0; i < 3000; i += 2 ) {
+            bitmap.add( i );
+        }
+        long before = bitmap.sizeInBytes();
+        bitmap.optimize();
+
+        assertThat( bitmap.sizeInBytes() ).isLessThan( before );
+        assertThat( bitmap.cardinality() ).isEqualTo( 1500 );
+    }
+
+    @Test
+    void t04RandomAgainstBitSet() {
+        Random random = new Random( 15 );
+        for ( int round = 0; round < 50; round++ ) {
+            BitSet ma = new BitSet();
+            BitSet mb = new BitSet();
+            IntegerRangeBitmap a = randomBitmap( random, ma );
+            IntegerRangeBitmap b = randomBitmap( random, mb );
+            assertSameValues( a, ma );
+
+            BitSet expected = (BitSet) ma.clone();
+            expected.and( mb );
+            assertSameValues( a.and( b ), expected );
+            expected = (BitSet) ma.clone();
+            expected.or( mb );
+            assertSameValues( a.or( b ), expected );
+            expected = (BitSet) ma.clone();
+            expected.andNot( mb );
+            assertSameValues( a.andNot( b ), expected );
+
+            a.optimize();
+            assertSameValues( a, ma );
+        }
+    }
+}
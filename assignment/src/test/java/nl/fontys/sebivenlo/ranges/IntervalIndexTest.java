@@ -0,0 +1,82 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the index answers with a linear scan over the same ranges.
+ */
+public class IntervalIndexTest {
+
+    List<IntegerRange> ranges = randomRanges( 500, 42L );
+    IntervalIndex<IntegerRange, Integer, Integer> index = IntervalIndex.of( ranges );
+
+    static List<IntegerRange> randomRanges( int count, long seed ) {
+        Random random = new Random( seed );
+        List<IntegerRange> result = new ArrayList<>();
+        for ( int i = 0; i < count; i++ ) {
+            int start = random.nextInt( 10_000 );
+            result.add( IntegerRange.of( start, start + random.nextInt( 200 ) ) );
+        }
+        return result;
+    }
+
+    @Test
+    void t01Containing() {
+        for ( int point = -5; point < 10_300; point += 7 ) {
+            final int p = point;
+            List<IntegerRange> expected = ranges.stream()
+                    .filter( r -> r.contains( p ) )
+                    .collect( Collectors.toList() );
+
+            assertThat( index.containing( p ) )
+                    .as( "containing " + p )
+                    .containsExactlyInAnyOrderElementsOf( expected );
+            assertThat( index.countContaining( p ) ).isEqualTo( expected.size() );
+        }
+    }
+
+    @Test
+    void t02Overlapping() {
+        for ( IntegerRange q : randomRanges( 200, 4711L ) ) {
+            List<IntegerRange> expected = ranges.stream()
+                    .filter( r -> r.overlaps( q ) )
+                    .collect( Collectors.toList() );
+
+            assertThat( index.overlapping( q ) )
+                    .as( "overlapping " + q )
+                    .containsExactlyInAnyOrderElementsOf( expected );
+            assertThat( index.countOverlapping( q ) ).isEqualTo( expected.size() );
+        }
+    }
+
+    /**
+     * Half open boundaries: the end is not part of a range.
+     *
+     * @param point to stab with
+     * @param expected count
+     */
+    @ParameterizedTest
+    @CsvSource( { "9,0", "10,1", "19,1", "20,1", "29,1", "30,0" } )
+    void t03Boundaries( int point, int expected ) {
+        var small = IntervalIndex.<IntegerRange, Integer, Integer>of(
+                List.of( IntegerRange.of( 10, 20 ), IntegerRange.of( 20, 30 ),
+                        IntegerRange.of( 25, 25 ) ) );
+
+        assertThat( small.countContaining( point ) ).isEqualTo( expected );
+    }
+
+    @Test
+    void t04ResultsInStartOrder() {
+        List<IntegerRange> result = index.overlapping( IntegerRange.of( 2000, 6000 ) );
+
+        assertThat( result ).isSortedAccordingTo( IntegerRange::compareTo );
+    }
+}
@@ -0,0 +1,66 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class OffHeapIntRangeStoreTest {
+
+    List<IntegerRange> ranges = IntervalIndexTest.randomRanges( 3000, 6L );
+
+    @Test
+    void t01RoundTripAndGrowth() {
+        OffHeapIntRangeStore store = new OffHeapIntRangeStore( 1 );
+        ranges.forEach( store::append );
+
+        assertThat( store.size() ).isEqualTo( ranges.size() );
+        assertThat( store.stream() ).containsExactlyElementsOf( ranges );
+    }
+
+    @Test
+    void t02SortAndSearch() {
+        OffHeapIntRangeStore store = OffHeapIntRangeStore.from( ranges.stream() );
+        store.sort();
+        List<IntegerRange> expected = ranges.stream()
+                .sorted( Comparator.comparing( IntegerRange::start )
+                        .thenComparing( IntegerRange::end ) )
+                .collect( Collectors.toList() );
+
+        assertThat( store.isSorted() ).isTrue();
+        assertThat( store.stream() ).containsExactlyElementsOf( expected );
+        int first = store.lowerBound( 5000 );
+        assertThat( store.start( first ) ).isGreaterThanOrEqualTo( 5000 );
+        assertThat( store.start( first - 1 ) ).isLessThan( 5000 );
+    }
+
+    @Test
+    void t03SearchNeedsSort() {
+        OffHeapIntRangeStore store = new OffHeapIntRangeStore();
+        store.append( 10, 20 );
+        store.append( 0, 5 );
+
+        assertThatThrownBy( () -> store.lowerBound( 3 ) )
+                .isInstanceOf( IllegalStateException.class );
+    }
+
+    @Test
+    void t04CursorIsFlyweight() {
+        OffHeapIntRangeStore store = new OffHeapIntRangeStore();
+        store.append( 20, 10 ); // normalized
+        store.append( 30, 40 );
+        OffHeapIntRangeStore.Cursor cursor = store.cursor();
+
+        assertThat( cursor.next() ).isTrue();
+        assertThat( cursor.start() ).isEqualTo( 10 );
+        assertThat( cursor.contains( 19 ) ).isTrue();
+        assertThat( cursor.contains( 20 ) ).isFalse();
+        assertThat( cursor.next() ).isTrue();
+        assertThat( cursor.overlaps( 35, 50 ) ).isTrue();
+        assertThat( cursor.toIntRange() ).isEqualTo( IntRange.of( 30, 40 ) );
+        assertThat( cursor.next() ).isFalse();
+    }
+}
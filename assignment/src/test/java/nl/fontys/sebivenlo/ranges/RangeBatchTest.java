@@ -0,0 +1,146 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The batch results are compared with {@link Range#contains(Comparable)} per
+ * point, with the extreme values mixed in to catch overflow.
+ */
+public class RangeBatchTest {
+
+    static final int[] EXTREME_INTS = { Integer.MIN_VALUE, Integer.MIN_VALUE + 1,
+        -1, 0, 1, Integer.MAX_VALUE - 1, Integer.MAX_VALUE };
+    static final long[] EXTREME_LONGS = { Long.MIN_VALUE, Long.MIN_VALUE + 1,
+        -1, 0, 1, Long.MAX_VALUE - 1, Long.MAX_VALUE };
+
+    static Instant nanos( long epochNanos ) {
+        return Instant.EPOCH.plusNanos( epochNanos );
+    }
+
+    static int randomInt( Random random ) {
+        return random.nextInt( 4 ) == 0 ? EXTREME_INTS[ random.nextInt( EXTREME_INTS.length ) ]
+                : random.nextInt( 100 ) - 50;
+    }
+
+    static long randomLong( Random random ) {
+        return random.nextInt( 4 ) == 0 ? EXTREME_LONGS[ random.nextInt( EXTREME_LONGS.length ) ]
+                : random.nextInt( 100 ) - 50;
+    }
+
+    @Test
+    void t01IntPoints() {
+        Random random = new Random( 17 );
+        for ( int round = 0; round < 500; round++ ) {
+            IntegerRange range = IntegerRange.of( randomInt( random ), randomInt( random ) );
+            int[] points = random.ints( random.nextInt( 150 ) ).map( x -> randomInt( random ) ).toArray();
+            boolean[] mask = new boolean[ points.length ];
+            RangeBatch.contains( range, points, mask );
+            BitSet bits = RangeBatch.contains( range, points );
+
+            for ( int i = 0; i < points.length; i++ ) {
+                boolean expected = range.contains( points[ i ] );
+                assertThat( mask[ i ] ).as( range + " contains " + points[ i ] ).isEqualTo( expected );
+                assertThat( bits.get( i ) ).as( range + " contains " + points[ i ] ).isEqualTo( expected );
+            }
+        }
+    }
+
+    @Test
+    void t02LongPoints() {
+        Random random = new Random( 17 );
+        for ( int round = 0; round < 500; round++ ) {
+            long a = randomLong( random );
+            long b = randomLong( random );
+            long start = Math.min( a, b );
+            long end = Math.max( a, b );
+            InstantRange range = InstantRange.of( nanos( start ), nanos( end ) );
+            long[] points = random.longs( random.nextInt( 150 ) ).map( x -> randomLong( random ) ).toArray();
+            boolean[] mask = new boolean[ points.length ];
+            RangeBatch.contains( start, end, points, mask );
+            BitSet bits = RangeBatch.contains( start, end, points );
+
+            for ( int i = 0; i < points.length; i++ ) {
+                boolean expected = range.contains( nanos( points[ i ] ) );
+                assertThat( mask[ i ] ).isEqualTo( expected );
+                assertThat( bits.get( i ) ).isEqualTo( expected );
+            }
+        }
+    }
+
+    @Test
+    void t03MultiRangeMask() {
+        Random random = new Random( 17 );
+        List<IntegerRange> ranges = new ArrayList<>();
+        for ( int r = 0; r < 32; r++ ) {
+            int start = random.nextInt( 100 ) - 50;
+            ranges.add( IntegerRange.of( start, start + random.nextInt( 30 ) ) );
+        }
+        int[] points = random.ints( 1000, -60, 90 ).toArray();
+        int[] mask = new int[ points.length ];
+        RangeBatch.containedIn( ranges, points, mask );
+
+        for ( int i = 0; i < points.length; i++ ) {
+            int expected = 0;
+            for ( int r = 0; r < ranges.size(); r++ ) {
+                if ( ranges.get( r ).contains( points[ i ] ) ) {
+                    expected |= 1 << r;
+                }
+            }
+            assertThat( mask[ i ] ).isEqualTo( expected );
+        }
+    }
+
+    @Test
+    void t03bMultiRangeLongMask() {
+        Random random = new Random( 17 );
+        List<InstantRange> ranges = new ArrayList<>();
+        long[] starts = new long[ 32 ];
+        long[] ends = new long[ 32 ];
+        for ( int r = 0; r < 32; r++ ) {
+            long a = randomLong( random );
+            long b = randomLong( random );
+            starts[ r ] = Math.min( a, b );
+            ends[ r ] = Math.max( a, b );
+            ranges.add( InstantRange.of( nanos( starts[ r ] ), nanos( ends[ r ] ) ) );
+        }
+        long[] points = random.longs( 1000 ).map( x -> randomLong( random ) ).toArray();
+        int[] mask = new int[ points.length ];
+        RangeBatch.containedIn( starts, ends, points, mask );
+
+        for ( int i = 0; i < points.length; i++ ) {
+            int expected = 0;
+            for ( int r = 0; r < ranges.size(); r++ ) {
+                if ( ranges.get( r ).contains( nanos( points[ i ] ) ) ) {
+                    expected |= 1 << r;
+                }
+            }
+            assertThat( mask[ i ] ).isEqualTo( expected );
+        }
+    }
+
+    @Test
+    void t04Rejects() {
+        List<IntegerRange> tooMany = new ArrayList<>();
+        for ( int r = 0; r < 33; r++ ) {
+            tooMany.add( IntegerRange.of( r, r + 1 ) );
+        }
+        assertThatThrownBy( () -> RangeBatch.containedIn( tooMany, new int[ 1 ], new int[ 1 ] ) )
+                .isInstanceOf( IllegalArgumentException.class );
+        assertThatThrownBy( () -> RangeBatch.contains( IntegerRange.of( 1, 2 ), new int[ 2 ],
+                new boolean[ 1 ] ) )
+                .isInstanceOf( IllegalArgumentException.class );
+        assertThatThrownBy( () -> RangeBatch.contains( 2L, 1L, new long[ 1 ] ) )
+                .isInstanceOf( IllegalArgumentException.class );
+        assertThatThrownBy( () -> RangeBatch.containedIn( new long[ 2 ], new long[ 1 ],
+                new long[ 1 ], new int[ 1 ] ) )
+                .isInstanceOf( IllegalArgumentException.class );
+    }
+}
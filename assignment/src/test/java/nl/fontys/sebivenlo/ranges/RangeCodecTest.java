@@ -0,0 +1,137 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RangeCodecTest {
+
+    static List<InstantRange> randomInstantRanges( int count, long seed ) {
+        Random random = new Random( seed );
+        List<InstantRange> result = new ArrayList<>();
+        for ( int i = 0; i < count; i++ ) {
+            result.add( InstantRange.of(
+                    Instant.ofEpochSecond( random.nextInt(), random.nextInt( 1_000_000_000 ) ),
+                    Instant.ofEpochSecond( random.nextInt(), random.nextInt( 1_000_000_000 ) ) ) );
+        }
+        return result;
+    }
+
+    /**
+     * Single ranges, including the extremes of int.
+     *
+     * @param start of range
+     * @param end of range
+     * @param bytes expected encoded size
+     */
+    @ParameterizedTest
+    @CsvSource( {
+            "0,0,2",
+            "-1,1,2",
+            "42,2840,3",
+            "-2147483648,2147483647,10",
+    } )
+    void t01IntegerRangeBuffer( int start, int end, int bytes ) {
+        IntegerRange range = IntegerRange.of( start, end );
+        ByteBuffer buffer = ByteBuffer.allocate( 16 );
+        RangeCodec.writeIntegerRange( buffer, range );
+
+        assertThat( buffer.position() ).isEqualTo( bytes );
+        buffer.flip();
+        assertThat( RangeCodec.readIntegerRange( buffer ) ).isEqualTo( range );
+    }
+
+    @Test
+    void t02IntegerSequenceDataStream() throws IOException {
+        List<IntegerRange> ranges = IntervalIndexTest.randomRanges( 1000, 7L );
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        RangeCodec.writeIntegerRanges( new DataOutputStream( bytes ), ranges );
+
+        assertThat( RangeCodec.readIntegerRanges( new DataInputStream(
+                new ByteArrayInputStream( bytes.toByteArray() ) ) ) )
+                .containsExactlyElementsOf( ranges );
+    }
+
+    @Test
+    void t03InstantSequenceChannel() throws IOException {
+        List<InstantRange> ranges = randomInstantRanges( 1000, 8L );
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        RangeCodec.writeInstantRanges( Channels.newChannel( bytes ), ranges );
+
+        assertThat( RangeCodec.readInstantRanges( Channels.newChannel(
+                new ByteArrayInputStream( bytes.toByteArray() ) ) ) )
+                .containsExactlyElementsOf( ranges );
+    }
+
+    @Test
+    void t04InstantRangeBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocate( 64 );
+        InstantRange range = randomInstantRanges( 1, 9L ).get( 0 );
+        RangeCodec.writeInstantRange( buffer, range );
+        buffer.flip();
+
+        assertThat( RangeCodec.readInstantRange( buffer ) ).isEqualTo( range );
+    }
+
+    /**
+     * A corrupt size fails on the missing data, not on allocating a list of
+     * that size.
+     */
+    @Test
+    void t04bMalformedCount() {
+        byte[] negative = { (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x0f };
+        byte[] huge = { (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x07, 2, 4 };
+
+        assertThatThrownBy( () -> RangeCodec.readIntegerRanges( new DataInputStream(
+                new ByteArrayInputStream( negative ) ) ) )
+                .isInstanceOf( IOException.class )
+                .hasMessageContaining( "negative" );
+        assertThatThrownBy( () -> RangeCodec.readInstantRanges( ByteBuffer.wrap( negative ) ) )
+                .isInstanceOf( UncheckedIOException.class );
+        assertThatThrownBy( () -> RangeCodec.readIntegerRanges( new DataInputStream(
+                new ByteArrayInputStream( huge ) ) ) )
+                .isInstanceOf( EOFException.class );
+        assertThatThrownBy( () -> RangeCodec.readInstantRanges( ByteBuffer.wrap( huge ) ) )
+                .isInstanceOf( BufferUnderflowException.class );
+    }
+
+    /**
+     * Plain java serialization goes through the compact proxy and resolves
+     * to the leaf classes again.
+     */
+    @Test
+    void t05ObjectStreamUsesProxy() throws IOException, ClassNotFoundException {
+        List<Range<?, ?, ?>> ranges = new ArrayList<>();
+        ranges.addAll( IntervalIndexTest.randomRanges( 100, 10L ) );
+        ranges.addAll( randomInstantRanges( 100, 11L ) );
+        ranges.add( IntRange.of( 1, 2 ) );
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try ( ObjectOutputStream out = new ObjectOutputStream( bytes ) ) {
+            out.writeObject( ranges );
+        }
+        Object copy = new ObjectInputStream( new ByteArrayInputStream(
+                bytes.toByteArray() ) ).readObject();
+
+        assertThat( copy ).isEqualTo( ranges );
+        assertThat( bytes.size() ).isLessThan( 201 * 40 );
+    }
+}
@@ -0,0 +1,53 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RangeCollectorsTest {
+
+    List<IntegerRange> ranges = IntervalIndexTest.randomRanges( 5000, 14L );
+    List<IntegerRange> expected = RangeSet.of( ranges ).ranges();
+
+    @Test
+    void t01Unsorted() {
+        List<IntegerRange> shuffled = new ArrayList<>( ranges );
+        Collections.shuffle( shuffled, new Random( 15L ) );
+
+        assertThat( shuffled.stream().collect( RangeCollectors.coalescing() ) )
+                .containsExactlyElementsOf( expected );
+    }
+
+    @Test
+    void t02Sorted() {
+        assertThat( ranges.stream().sorted().collect( RangeCollectors.coalescing() ) )
+                .containsExactlyElementsOf( expected );
+    }
+
+    @Test
+    void t03Parallel() {
+        assertThat( ranges.parallelStream().collect( RangeCollectors.coalescing() ) )
+                .containsExactlyElementsOf( expected );
+    }
+
+    @Test
+    void t04MeetingRangesJoinEmptyRangesDrop() {
+        List<IntegerRange> result = List.of( IntegerRange.of( 20, 30 ),
+                IntegerRange.of( 10, 20 ), IntegerRange.of( 40, 40 ),
+                IntegerRange.of( 50, 60 ) ).stream()
+                .collect( RangeCollectors.coalescing() );
+
+        assertThat( result ).containsExactly( IntegerRange.of( 10, 30 ),
+                IntegerRange.of( 50, 60 ) );
+    }
+
+    @Test
+    void t05Empty() {
+        assertThat( ranges.stream().limit( 0 ).collect( RangeCollectors.coalescing() ) )
+                .isEmpty();
+    }
+}
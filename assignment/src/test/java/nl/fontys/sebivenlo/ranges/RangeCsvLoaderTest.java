@@ -0,0 +1,108 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RangeCsvLoaderTest {
+
+    @TempDir
+    Path dir;
+
+    Path write( String text ) throws IOException {
+        return Files.writeString( dir.resolve( "ranges.csv" ), text );
+    }
+
+    @Test
+    void t01IntsAcrossManyChunks() throws IOException {
+        Random random = new Random( 22 );
+        StringBuilder text = new StringBuilder( "start,end\r\n" );
+        List<IntegerRange> expected = new ArrayList<>();
+        for ( int i = 0; i < 50_000; i++ ) {
+            int start = random.nextInt();
+            int end = random.nextInt();
+            text.append( start ).append( ',' ).append( end ).append( "\r\n" );
+            expected.add( IntegerRange.of( start, end ) );
+        }
+        RangeCsvLoader loader = new RangeCsvLoader( ForkJoinPool.commonPool(), 4096, true );
+
+        RangeCsvLoader.IntColumns columns = loader.loadInts( write( text.toString() ) );
+
+        assertThat( columns.size() ).isEqualTo( expected.size() );
+        assertThat( columns.starts() ).hasSize( expected.size() );
+        assertThat( columns.get( 7 ) ).isEqualTo( IntRange.from( expected.get( 7 ) ) );
+        assertThat( columns.toIntegerRanges() ).isEqualTo( expected );
+        assertThat( columns.statistics().chunks() ).isGreaterThan( 100 );
+        assertThat( columns.statistics().ranges() ).isEqualTo( expected.size() );
+        assertThat( columns.statistics().bytes() ).isEqualTo( text.length() );
+    }
+
+    @Test
+    void t02Instants() throws IOException {
+        Path file = write( "2021-03-01T10:00:00Z,2021-03-01T11:00:00.25Z\n"
+                + "2021-03-02T10:00:00Z,2021-03-01T12:00:00Z" );
+
+        RangeCsvLoader.InstantColumns columns = new RangeCsvLoader().loadInstants( file );
+
+        assertThat( columns.toInstantRanges() ).containsExactly(
+                InstantRange.of( Instant.parse( "2021-03-01T10:00:00Z" ),
+                        Instant.parse( "2021-03-01T11:00:00.25Z" ) ),
+                InstantRange.of( Instant.parse( "2021-03-01T12:00:00Z" ),
+                        Instant.parse( "2021-03-02T10:00:00Z" ) ) );
+        assertThat( columns.endNanos()[ 0 ] ).isEqualTo( 250_000_000 );
+    }
+
+    @Test
+    void t03EmptyFile() throws IOException {
+        assertThat( new RangeCsvLoader().loadInts( write( "" ) ).size() ).isZero();
+    }
+
+    @Test
+    void t04MalformedLine() throws IOException {
+        Path file = write( "1,2\n3;4\n" );
+
+        assertThatThrownBy( () -> new RangeCsvLoader().loadInts( file ) )
+                .isInstanceOf( IllegalArgumentException.class )
+                .hasMessageContaining( "at position 5" );
+    }
+
+    @Test
+    void t04bMalformedLineOffsetInFile() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for ( int i = 0; i < 10_000; i++ ) {
+            text.append( "100,200\n" );
+        }
+        int bad = text.length() + 3;
+        text.append( "100;200\n" );
+        RangeCsvLoader loader = new RangeCsvLoader( ForkJoinPool.commonPool(), 4096, false );
+        Path file = write( text.toString() );
+
+        assertThatThrownBy( () -> loader.loadInts( file ) )
+                .isInstanceOf( IllegalArgumentException.class )
+                .hasMessageContaining( "at position " + bad + ":" );
+    }
+
+    @Test
+    void t05OneRangePerLine() throws IOException {
+        assertThat( new RangeCsvLoader().loadInts( write( "1,2 \t\r\n3,4  " ) ).size() )
+                .isEqualTo( 2 );
+        Path file = write( "1,2 3,4\n" );
+
+        assertThatThrownBy( () -> new RangeCsvLoader().loadInts( file ) )
+                .isInstanceOf( IllegalArgumentException.class )
+                .hasMessageContaining( "at position 4" );
+        Path instants = write( "2021-03-01T10:00:00Z,2021-03-01T11:00:00Z x\n" );
+        assertThatThrownBy( () -> new RangeCsvLoader().loadInstants( instants ) )
+                .isInstanceOf( IllegalArgumentException.class );
+    }
+}
@@ -0,0 +1,59 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.EventType;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RangeEventsTest {
+
+    static final String PREFIX = "nl.fontys.sebivenlo.ranges.";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void t01DisabledByDefault() {
+        assertThat( EventType.getEventType( RangeEvents.Join.class ).isEnabled() ).isFalse();
+        assertThat( EventType.getEventType( RangeEvents.Bulk.class ).isEnabled() ).isFalse();
+    }
+
+    @Test
+    void t02Recorded() throws IOException {
+        List<RecordedEvent> events;
+        try ( Recording recording = new Recording() ) {
+            for ( String name : List.of( "Join", "Intersect", "PunchThrough", "NoOverlap", "Bulk" ) ) {
+                recording.enable( PREFIX + name );
+            }
+            recording.start();
+            IntegerRange.of( 1, 3 ).joinWith( IntegerRange.of( 2, 5 ) );
+            IntRange.of( 1, 3 ).intersectWith( IntRange.of( 2, 5 ) );
+            IntRange.of( 1, 9 ).punchThrough( IntRange.of( 2, 5 ), r -> {
+            } );
+            assertThatThrownBy( () -> IntRange.of( 1, 2 ).joinWith( IntRange.of( 5, 6 ) ) )
+                    .isInstanceOf( IllegalArgumentException.class );
+            IntervalIndex.of( List.of( IntegerRange.of( 1, 4 ) ) ).containing( 2 );
+            recording.stop();
+            Path file = dir.resolve( "ranges.jfr" );
+            recording.dump( file );
+            events = RecordingFile.readAllEvents( file ).stream()
+                    .filter( e -> e.getEventType().getName().startsWith( PREFIX ) )
+                    .collect( Collectors.toList() );
+        }
+
+        assertThat( events ).extracting( e -> e.getEventType().getName().substring( PREFIX.length() ) )
+                .containsExactly( "Join", "Intersect", "PunchThrough", "NoOverlap", "Bulk", "Bulk" );
+        assertThat( events.get( 3 ).getString( "message" ) ).contains( "[1,2)", "[5,6)" );
+        assertThat( events.get( 4 ).getString( "operation" ) ).isEqualTo( "IntervalIndex.of" );
+        assertThat( events.get( 4 ).getInt( "size" ) ).isEqualTo( 1 );
+    }
+}
@@ -0,0 +1,56 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RangeInternerTest {
+
+    @Test
+    void t01SameBoundsSameInstance() {
+        RangeInterner<IntegerRange, Integer, Integer> interner
+                = new RangeInterner<>( 100, IntegerRange::of );
+        IntegerRange first = interner.of( 1000, 2000 );
+
+        assertThat( interner.of( 2000, 1000 ) ).isSameAs( first );
+        assertThat( interner.intern( IntegerRange.of( 1000, 2000 ) ) ).isSameAs( first );
+        assertThat( interner.hits() ).isEqualTo( 2 );
+        assertThat( interner.misses() ).isEqualTo( 1 );
+        assertThat( interner.hitRate() ).isEqualTo( 2.0 / 3 );
+        assertThat( interner.capacity() ).isEqualTo( 128 );
+    }
+
+    @Test
+    void t02InstantRanges() {
+        RangeInterner<InstantRange, Instant, Duration> interner
+                = new RangeInterner<>( 16, InstantRange::of );
+        Instant a = Instant.EPOCH;
+        Instant b = a.plusSeconds( 3600 );
+        InstantRange first = interner.of( a, b );
+
+        assertThat( interner.of( Instant.ofEpochSecond( 0 ), Instant.ofEpochSecond( 3600 ) ) )
+                .isSameAs( first );
+    }
+
+    @Test
+    void t03EvictionKeepsResultsCorrect() {
+        RangeInterner<IntegerRange, Integer, Integer> interner
+                = new RangeInterner<>( 1, IntegerRange::of );
+
+        for ( int i = 0; i < 100; i++ ) {
+            assertThat( interner.of( i, i + 10 ) ).isEqualTo( IntegerRange.of( i, i + 10 ) );
+        }
+        assertThat( interner.misses() ).isEqualTo( 100 );
+        interner.resetStatistics();
+        assertThat( interner.hits() + interner.misses() ).isZero();
+    }
+
+    @Test
+    void t04RejectsBadCapacity() {
+        assertThatThrownBy( () -> new RangeInterner<IntegerRange, Integer, Integer>( 0, IntegerRange::of ) )
+                .isInstanceOf( IllegalArgumentException.class );
+    }
+}
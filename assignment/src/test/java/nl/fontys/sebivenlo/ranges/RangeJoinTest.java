@@ -0,0 +1,65 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Compares the sweep join with the nested loop it replaces.
+ */
+public class RangeJoinTest {
+
+    List<IntegerRange> left = IntervalIndexTest.randomRanges( 300, 1L );
+    List<IntegerRange> right = IntervalIndexTest.randomRanges( 200, 2L );
+
+    List<RangeJoin.Pair<IntegerRange, Integer>> nestedLoop() {
+        List<RangeJoin.Pair<IntegerRange, Integer>> result = new ArrayList<>();
+        for ( IntegerRange l : left ) {
+            for ( IntegerRange r : right ) {
+                if ( l.overlaps( r ) ) {
+                    result.add( new RangeJoin.Pair<>( l, r, l.overlap( r ) ) );
+                }
+            }
+        }
+        return result;
+    }
+
+    @Test
+    void t01JoinUnsorted() {
+        assertThat( RangeJoin.<IntegerRange, Integer, Integer>join( left, right, true ) )
+                .containsExactlyInAnyOrderElementsOf( nestedLoop() );
+    }
+
+    @Test
+    void t02JoinSorted() {
+        List<IntegerRange> sortedLeft = left.stream().sorted().collect( Collectors.toList() );
+        List<IntegerRange> sortedRight = right.stream().sorted().collect( Collectors.toList() );
+
+        assertThat( RangeJoin.<IntegerRange, Integer, Integer>joinSorted(
+                sortedLeft.stream(), sortedRight.stream(), true ) )
+                .containsExactlyInAnyOrderElementsOf( nestedLoop() );
+    }
+
+    @Test
+    void t03WithoutOverlap() {
+        var pairs = RangeJoin.<IntegerRange, Integer, Integer>join(
+                List.of( IntegerRange.of( 0, 10 ), IntegerRange.of( 10, 20 ) ),
+                List.of( IntegerRange.of( 5, 10 ) ), false );
+
+        assertThat( pairs ).hasSize( 1 );
+        assertThat( pairs.get( 0 ).left() ).isEqualTo( IntegerRange.of( 0, 10 ) );
+        assertThat( pairs.get( 0 ).overlap() ).isNull();
+    }
+
+    @Test
+    void t04SortedRejectsUnsortedInput() {
+        assertThatThrownBy( () -> RangeJoin.<IntegerRange, Integer, Integer>joinSorted(
+                List.of( IntegerRange.of( 5, 10 ), IntegerRange.of( 0, 10 ) ).stream(),
+                List.of( IntegerRange.of( 0, 10 ) ).stream(), false ) )
+                .isInstanceOf( IllegalArgumentException.class );
+    }
+}
@@ -0,0 +1,92 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * RangeMap tested with IntegerRanges on a small domain, against a plain array
+ * of values per point.
+ */
+public class RangeMapTest {
+
+    static final int DOMAIN = 100;
+
+    static IntegerRange r( int start, int end ) {
+        return IntegerRange.of( start, end );
+    }
+
+    @Test
+    void t01PutSplitsExistingEntries() {
+        RangeMap<IntegerRange, Integer, Integer, String> map = new RangeMap<>();
+        map.put( r( 10, 50 ), "a" );
+        map.put( r( 20, 30 ), "b" );
+
+        assertThat( map.ranges() ).containsExactly( r( 10, 20 ), r( 20, 30 ), r( 30, 50 ) );
+        assertThat( map.get( 19 ) ).isEqualTo( "a" );
+        assertThat( map.get( 20 ) ).isEqualTo( "b" );
+        assertThat( map.get( 30 ) ).isEqualTo( "a" );
+        assertThat( map.get( 50 ) ).isNull();
+        assertThat( map.getEntry( 25 ) ).hasValueSatisfying(
+                e -> assertThat( e.getKey() ).isEqualTo( r( 20, 30 ) ) );
+    }
+
+    @Test
+    void t02CoalescesEqualNeighbours() {
+        RangeMap<IntegerRange, Integer, Integer, String> map = new RangeMap<>( true );
+        map.put( r( 10, 20 ), "a" );
+        map.put( r( 30, 40 ), "a" );
+        map.put( r( 20, 30 ), "a" );
+        map.put( r( 40, 50 ), "b" );
+
+        assertThat( map.ranges() ).containsExactly( r( 10, 40 ), r( 40, 50 ) );
+        assertThat( map.toString() ).isEqualTo( "{[10,40)=a, [40,50)=b}" );
+    }
+
+    @Test
+    void t03SubMapIsClippedLiveView() {
+        RangeMap<IntegerRange, Integer, Integer, String> map = new RangeMap<>();
+        map.put( r( 10, 30 ), "a" );
+        map.put( r( 30, 60 ), "b" );
+        RangeMap<IntegerRange, Integer, Integer, String> view = map.subMap( r( 20, 40 ) );
+
+        assertThat( view.ranges() ).containsExactly( r( 20, 30 ), r( 30, 40 ) );
+        assertThat( view.get( 45 ) ).isNull();
+        view.put( r( 25, 35 ), "c" );
+        assertThat( map.get( 33 ) ).isEqualTo( "c" );
+        assertThatThrownBy( () -> view.put( r( 35, 45 ), "d" ) )
+                .isInstanceOf( IllegalArgumentException.class );
+        view.clear();
+        assertThat( view.isEmpty() ).isTrue();
+        assertThat( map.ranges() ).containsExactly( r( 10, 20 ), r( 40, 60 ) );
+    }
+
+    @Test
+    void t04RandomAgainstPointModel() {
+        Random random = new Random( 14 );
+        for ( int round = 0; round < 200; round++ ) {
+            RangeMap<IntegerRange, Integer, Integer, Integer> map
+                    = new RangeMap<>( random.nextBoolean() );
+            Integer[] model = new Integer[ DOMAIN ];
+            for ( int i = 0; i < 20; i++ ) {
+                int start = random.nextInt( DOMAIN - 15 );
+                int end = start + random.nextInt( 15 );
+                Integer value = random.nextInt( 4 ) == 0 ? null : random.nextInt( 3 );
+                if ( value == null ) {
+                    map.remove( r( start, end ) );
+                } else {
+                    map.put( r( start, end ), value );
+                }
+                for ( int p = start; p < end; p++ ) {
+                    model[ p ] = value;
+                }
+            }
+            for ( int p = 0; p < DOMAIN; p++ ) {
+                assertThat( map.get( p ) ).as( "point " + p + " in " + map )
+                        .isEqualTo( model[ p ] );
+            }
+        }
+    }
+}
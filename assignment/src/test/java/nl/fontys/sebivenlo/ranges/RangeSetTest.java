@@ -0,0 +1,120 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * RangeSet tested with IntegerRanges on a small domain, so that the expected
+ * outcome can be computed point by point.
+ */
+public class RangeSetTest {
+
+    static final int DOMAIN = 200;
+
+    static IntegerRange r( int start, int end ) {
+        return IntegerRange.of( start, end );
+    }
+
+    static RangeSet<IntegerRange, Integer, Integer> randomSet( Random random ) {
+        RangeSet<IntegerRange, Integer, Integer> set = new RangeSet<>();
+        for ( int i = 0; i < 15; i++ ) {
+            int start = random.nextInt( DOMAIN - 20 );
+            IntegerRange range = r( start, start + random.nextInt( 20 ) );
+            if ( random.nextInt( 4 ) == 0 ) {
+                set.remove( range );
+            } else {
+                set.add( range );
+            }
+        }
+        return set;
+    }
+
+    /**
+     * The stored ranges are sorted and never meet nor overlap.
+     */
+    static void assertNormalized( RangeSet<IntegerRange, Integer, Integer> set ) {
+        List<IntegerRange> ranges = set.ranges();
+        for ( int i = 1; i < ranges.size(); i++ ) {
+            assertThat( ranges.get( i - 1 ).end() )
+                    .as( "gap between " + ranges.get( i - 1 ) + " and " + ranges.get( i ) )
+                    .isLessThan( ranges.get( i ).start() );
+        }
+        assertThat( ranges ).allMatch( x -> x.start() < x.end() );
+    }
+
+    /**
+     * Add ranges and check the coalesced outcome.
+     *
+     * @param adds ranges to add, as start-end pairs
+     * @param expected resulting ranges
+     */
+    @ParameterizedTest
+    @CsvSource( value = {
+            "10-20,30-40|[[10,20), [30,40)]", // disjoint
+            "10-20,20-30|[[10,30)]", // meets
+            "10-20,15-30|[[10,30)]", // overlap
+            "10-40,15-30|[[10,40)]", // contained
+            "10-20,30-40,50-60,15-55|[[10,60)]", // swallow several
+            "10-20,20-20|[[10,20)]", // empty
+    }, delimiter = '|' )
+    void t01Add( String adds, String expected ) {
+        RangeSet<IntegerRange, Integer, Integer> set = new RangeSet<>();
+        for ( String pair : adds.split( "," ) ) {
+            String[] se = pair.split( "-" );
+            set.add( r( Integer.parseInt( se[ 0 ] ), Integer.parseInt( se[ 1 ] ) ) );
+        }
+
+        assertThat( set ).hasToString( expected );
+    }
+
+    @Test
+    void t02RemoveSplits() {
+        RangeSet<IntegerRange, Integer, Integer> set = RangeSet.of(
+                List.of( r( 10, 50 ), r( 60, 70 ) ) );
+
+        assertThat( set.remove( r( 20, 30 ) ) ).isTrue();
+        assertThat( set ).containsExactly( r( 10, 20 ), r( 30, 50 ), r( 60, 70 ) );
+        assertThat( set.remove( r( 40, 65 ) ) ).isTrue();
+        assertThat( set ).containsExactly( r( 10, 20 ), r( 30, 40 ), r( 65, 70 ) );
+        assertThat( set.remove( r( 0, 5 ) ) ).isFalse();
+    }
+
+    @Test
+    void t03ContainsPointAndRange() {
+        RangeSet<IntegerRange, Integer, Integer> set = RangeSet.of(
+                List.of( r( 10, 20 ), r( 30, 40 ) ) );
+
+        assertThat( set.contains( 10 ) ).isTrue();
+        assertThat( set.contains( 20 ) ).isFalse();
+        assertThat( set.contains( 9 ) ).isFalse();
+        assertThat( set.contains( r( 12, 20 ) ) ).isTrue();
+        assertThat( set.contains( r( 15, 35 ) ) ).isFalse();
+    }
+
+    @Test
+    void t04SetAlgebraPointwise() {
+        Random random = new Random( 42 );
+        for ( int round = 0; round < 100; round++ ) {
+            var a = randomSet( random );
+            var b = randomSet( random );
+            var union = a.union( b );
+            var intersection = a.intersection( b );
+            var difference = a.difference( b );
+            assertNormalized( union );
+            assertNormalized( intersection );
+            assertNormalized( difference );
+            for ( int p = 0; p < DOMAIN; p++ ) {
+                boolean inA = a.contains( p );
+                boolean inB = b.contains( p );
+                assertThat( union.contains( p ) ).as( "union at " + p ).isEqualTo( inA || inB );
+                assertThat( intersection.contains( p ) ).as( "intersection at " + p ).isEqualTo( inA && inB );
+                assertThat( difference.contains( p ) ).as( "difference at " + p ).isEqualTo( inA && !inB );
+            }
+        }
+    }
+}
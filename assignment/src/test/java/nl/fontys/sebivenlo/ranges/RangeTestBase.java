@@ -6,6 +6,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Stream;
@@ -429,6 +431,52 @@ public abstract class RangeTestBase<
         //fail( "method t14JoinWith reached end. You know what to do." );
     }
 
+    /**
+     * Check tryJoinWith and meetsOrOverlaps, which agree with joinWith but
+     * return null instead of throwing.
+     *
+     * @param pp1 first range spec
+     * @param pp2 second range spec
+     * @param expectedRange joined range, empty when the ranges cannot join
+     */
+    @ParameterizedTest
+    @CsvSource( {
+            "ab,bc,ac",
+            "ac,bd,ad",
+            "bc,ab,ac",
+            "ad,bc,ad",
+            "ab,cd,",
+            "cd,ab,"
+    } )
+    void t14bTryJoinWith( String pp1, String pp2, String expectedRange ) {
+        R range1 = createRange( pp1 );
+        R range2 = createRange( pp2 );
+
+        if ( expectedRange == null ) {
+            assertThat( range1.meetsOrOverlaps( range2 ) ).isFalse();
+            assertThat( range1.tryJoinWith( range2 ) ).isNull();
+        } else {
+            assertThat( range1.meetsOrOverlaps( range2 ) ).isTrue();
+            assertThat( range1.tryJoinWith( range2 ) )
+                    .isEqualTo( createRange( expectedRange ) )
+                    .isEqualTo( range1.joinWith( range2 ) );
+        }
+    }
+
+    /**
+     * Join a sorted sequence of ranges into disjoint runs.
+     */
+    @Test
+    void t14cJoinAdjacent() {
+        List<R> sorted = List.of( createRange( "ab" ), createRange( "bc" ),
+                createRange( "de" ), createRange( "df" ), createRange( "ef" ) );
+        List<R> result = new ArrayList<>();
+
+        assertThat( Range.joinAdjacent( sorted, result::add ) ).isEqualTo( 2 );
+        assertThat( result ).containsExactly( createRange( "ac" ), createRange( "df" ) );
+        assertThat( Range.joinAdjacent( List.<R>of(), result::add ) ).isZero();
+    }
+
     /**
      * Check the intersect method part 1.
      *
@@ -555,6 +603,50 @@ public abstract class RangeTestBase<
 
     }
 
+    /**
+     * The sink variant of punchThrough produces the same parts as the stream
+     * variant.
+     *
+     * @param rangeP range spec
+     * @param punchP punch value
+     * @param restPairs, | separated list of expected ranges
+     */
+    @ParameterizedTest
+    @CsvSource( value = {
+            "ab,ab,ab", // replace
+            "ac,ab,ab|bc", // left punch
+            "ac,bd,ac", // miss
+            "bf,ce,bc|ce|ef", // middle
+            "cf,ef,ce|ef", // right punch
+    }
+    )
+    void t17bPunchThroughSink( String rangeP, String punchP, String restPairs ) {
+        R range = createRange( rangeP );
+        R punch = createRange( punchP );
+        var expectedParts = helper().restRanges( "\\|", restPairs );
+        List<R> result = new ArrayList<>();
+
+        assertThat( range.punchThrough( punch, result::add ) )
+                .isEqualTo( expectedParts.size() );
+        assertThat( result ).containsExactlyElementsOf( expectedParts );
+    }
+
+    /**
+     * Punch through a sorted sequence of ranges.
+     */
+    @Test
+    void t17cPunchThroughAll() {
+        List<R> sorted = List.of( createRange( "ab" ), createRange( "bf" ),
+                createRange( "cd" ), createRange( "ef" ) );
+        R punch = createRange( "ce" );
+        var expectedParts = helper().restRanges( "\\|", "ab|bc|ce|ef|cd|ef" );
+        List<R> result = new ArrayList<>();
+
+        assertThat( Range.punchThroughAll( punch, sorted, result::add ) )
+                .isEqualTo( expectedParts.size() );
+        assertThat( result ).containsExactlyElementsOf( expectedParts );
+    }
+
     /**
      * Test compareTo. The outcome is negative, zero or positive, which is
      * expressed in the table as -1, 0. or 1.
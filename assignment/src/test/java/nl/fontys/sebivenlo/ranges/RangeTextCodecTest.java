@@ -0,0 +1,146 @@
+package nl.fontys.sebivenlo.ranges;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RangeTextCodecTest {
+
+    final RangeTextCodec codec = new RangeTextCodec();
+
+    @Test
+    void t01ParseInts() {
+        CharBuffer in = CharBuffer.wrap( "[1,5)\n [-2147483648,2147483647)\n[7,3)\n" );
+
+        assertThat( codec.parseIntRange( in ) ).isEqualTo( IntRange.of( 1, 5 ) );
+        assertThat( codec.parseIntRange( in ) )
+                .isEqualTo( IntRange.of( Integer.MIN_VALUE, Integer.MAX_VALUE ) );
+        assertThat( codec.parseIntegerRange( in ) ).isEqualTo( IntegerRange.of( 3, 7 ) );
+        assertThat( codec.hasNext( in ) ).isFalse();
+    }
+
+    @Test
+    void t02ParseInstantsFromBytes() {
+        ByteBuffer in = ByteBuffer.wrap( ( "[2020-02-29T10:15:30Z,2020-03-01T00:00:00.5Z)\n"
+                + "[1970-01-01T00:00:00Z,9999-12-31T23:59:59.123456789Z)" )
+                .getBytes( StandardCharsets.US_ASCII ) );
+
+        assertThat( codec.parseInstantRange( in ) ).isEqualTo( InstantRange.of(
+                Instant.parse( "2020-02-29T10:15:30Z" ),
+                Instant.parse( "2020-03-01T00:00:00.5Z" ) ) );
+        assertThat( codec.hasNext( in ) ).isTrue();
+        assertThat( codec.parseInstantRange( in ) ).isEqualTo( InstantRange.of(
+                Instant.EPOCH, Instant.parse( "9999-12-31T23:59:59.123456789Z" ) ) );
+        assertThat( codec.hasNext( in ) ).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource( strings = { "[1,2]", "[1,)", "(1,2)", "[2147483648,1)", "[1,2" } )
+    void t03MalformedIntsLeavePosition( String text ) {
+        CharBuffer in = CharBuffer.wrap( text );
+
+        assertThatThrownBy( () -> codec.parseIntRange( in ) )
+                .isInstanceOf( IllegalArgumentException.class );
+        assertThat( in.position() ).isZero();
+    }
+
+    @ParameterizedTest
+    @ValueSource( strings = {
+        "[2021-02-29T00:00:00Z,2022-01-01T00:00:00Z)",
+        "[2021-01-01T24:00:00Z,2022-01-01T00:00:00Z)",
+        "[2021-01-01T00:00:00.Z,2022-01-01T00:00:00Z)",
+        "[2021-01-01T00:00:00.1234567890Z,2022-01-01T00:00:00Z)",
+        "[2021-01-01T00:00:00+01:00,2022-01-01T00:00:00Z)" } )
+    void t04MalformedInstants( String text ) {
+        assertThatThrownBy( () -> codec.parseInstantRange( CharBuffer.wrap( text ) ) )
+                .isInstanceOf( IllegalArgumentException.class );
+    }
+
+    @Test
+    void t05FormatLikeToString() throws IOException {
+        List<Object> ranges = List.of( IntRange.of( -12, 345 ), IntegerRange.of( 0, 0 ),
+                InstantRange.of( Instant.parse( "2021-03-01T10:00:00.120Z" ),
+                        Instant.parse( "2021-03-01T11:00:00.000001Z" ) ),
+                InstantRange.of( Instant.MIN, Instant.MAX ) );
+        StringBuilder out = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        ByteBuffer bytes = ByteBuffer.allocate( 200 );
+        for ( Object r : ranges ) {
+            if ( r instanceof IntRange ) {
+                codec.format( (IntRange) r, out );
+                codec.format( (IntRange) r, bytes );
+            } else if ( r instanceof IntegerRange ) {
+                codec.format( (IntegerRange) r, out );
+                codec.format( (IntegerRange) r, bytes );
+            } else {
+                codec.format( (InstantRange) r, out );
+                codec.format( (InstantRange) r, bytes );
+            }
+            expected.append( r );
+        }
+
+        assertThat( out.toString() ).isEqualTo( expected.toString() );
+        assertThat( new String( bytes.array(), 0, bytes.position(), StandardCharsets.US_ASCII ) )
+                .isEqualTo( expected.toString() );
+    }
+
+    @Test
+    void t05bFormatToWriterAndOtherAppendable() throws IOException {
+        IntRange r = IntRange.of( -12, 345 );
+        StringWriter writer = new StringWriter();
+        CharBuffer chars = CharBuffer.allocate( 20 );
+
+        codec.format( r, writer );
+        codec.format( r, chars );
+
+        assertThat( writer.toString() ).isEqualTo( r.toString() );
+        assertThat( chars.flip().toString() ).isEqualTo( r.toString() );
+    }
+
+    @Test
+    void t06ByteBufferOverflowWritesNothing() {
+        ByteBuffer out = ByteBuffer.allocate( 5 );
+
+        assertThatThrownBy( () -> codec.format( IntRange.of( 1, 100 ), out ) )
+                .isInstanceOf( BufferOverflowException.class );
+        assertThat( out.position() ).isZero();
+    }
+
+    @Test
+    void t07RandomInstantRoundTrip() throws IOException {
+        Random random = new Random( 21 );
+        List<InstantRange> ranges = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        for ( int i = 0; i < 10_000; i++ ) {
+            long s1 = Math.floorMod( random.nextLong(), 253_402_300_800L ) - 62_167_219_200L;
+            long s2 = Math.floorMod( random.nextLong(), 253_402_300_800L ) - 62_167_219_200L;
+            int nano = random.nextBoolean() ? 0 : random.nextInt( 1_000_000_000 );
+            InstantRange r = InstantRange.ofEpochSecond( s1, nano, s2, random.nextInt( 1000 ) * 1_000_000 );
+            ranges.add( r );
+            int before = text.length();
+            codec.format( r, text );
+            assertThat( text.substring( before ) ).isEqualTo( r.toString() );
+            text.append( '\n' );
+        }
+
+        CharBuffer in = CharBuffer.wrap( text );
+        List<InstantRange> parsed = new ArrayList<>();
+        while ( codec.hasNext( in ) ) {
+            parsed.add( codec.parseInstantRange( in ) );
+        }
+        assertThat( parsed ).isEqualTo( ranges );
+    }
+}
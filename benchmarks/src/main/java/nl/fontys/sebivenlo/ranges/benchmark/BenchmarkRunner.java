@@ -0,0 +1,27 @@
+package nl.fontys.sebivenlo.ranges.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler attached, so that every result
+ * also reports its allocation rate (gc.alloc.rate.norm is bytes per
+ * operation). Command line arguments are the usual JMH ones, e.g. a regular
+ * expression to select benchmarks.
+ */
+public class BenchmarkRunner {
+
+    public static void main( String[] args ) throws RunnerException,
+            CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent( new CommandLineOptions( args ) )
+                .addProfiler( GCProfiler.class )
+                .build();
+        new Runner( options ).run();
+    }
+}
@@ -0,0 +1,31 @@
+package nl.fontys.sebivenlo.ranges.benchmark;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import nl.fontys.sebivenlo.ranges.InstantRange;
+
+/**
+ * Range default methods on InstantRange.
+ */
+public class InstantRangeBenchmark extends RangeBenchmarkBase<InstantRange, Instant, Duration> {
+
+    Instant[] points = {
+        Instant.EPOCH.plus( 42, ChronoUnit.HOURS ),
+        Instant.EPOCH.plus( 51, ChronoUnit.HOURS ),
+        Instant.EPOCH.plus( 55, ChronoUnit.HOURS ),
+        Instant.EPOCH.plus( 1023, ChronoUnit.HOURS ),
+        Instant.EPOCH.plus( 1610, ChronoUnit.HOURS ),
+        Instant.EPOCH.plus( 2840, ChronoUnit.HOURS )
+    };
+
+    @Override
+    Instant[] points() {
+        return points;
+    }
+
+    @Override
+    InstantRange createRange( Instant start, Instant end ) {
+        return InstantRange.of( start, end );
+    }
+}
@@ -0,0 +1,21 @@
+package nl.fontys.sebivenlo.ranges.benchmark;
+
+import nl.fontys.sebivenlo.ranges.IntRange;
+
+/**
+ * Range methods on the primitive IntRange, as a baseline for IntegerRange.
+ */
+public class IntRangeBenchmark extends RangeBenchmarkBase<IntRange, Integer, Integer> {
+
+    Integer[] points = { 42, 51, 55, 1023, 1610, 2840 };
+
+    @Override
+    Integer[] points() {
+        return points;
+    }
+
+    @Override
+    IntRange createRange( Integer start, Integer end ) {
+        return IntRange.of( start, end );
+    }
+}
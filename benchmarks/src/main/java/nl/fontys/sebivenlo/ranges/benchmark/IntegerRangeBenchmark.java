@@ -0,0 +1,21 @@
+package nl.fontys.sebivenlo.ranges.benchmark;
+
+import nl.fontys.sebivenlo.ranges.IntegerRange;
+
+/**
+ * Range default methods on the boxed IntegerRange.
+ */
+public class IntegerRangeBenchmark extends RangeBenchmarkBase<IntegerRange, Integer, Integer> {
+
+    Integer[] points = { 42, 51, 55, 1023, 1610, 2840 };
+
+    @Override
+    Integer[] points() {
+        return points;
+    }
+
+    @Override
+    IntegerRange createRange( Integer start, Integer end ) {
+        return IntegerRange.of( start, end );
+    }
+}
@@ -0,0 +1,79 @@
+package nl.fontys.sebivenlo.ranges.benchmark;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import nl.fontys.sebivenlo.ranges.IntegerRange;
+import nl.fontys.sebivenlo.ranges.RangeBatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Batch containment with {@link RangeBatch} against one contains call per
+ * point.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class RangeBatchBenchmark {
+
+    @Param( { "1024", "65536" } )
+    public int size;
+
+    IntegerRange range = IntegerRange.of( 1000, 3000 );
+    List<IntegerRange> ranges = new ArrayList<>();
+    int[] points;
+    boolean[] mask;
+    int[] multiMask;
+
+    @Setup
+    public void setup() {
+        Random random = new Random( 42 );
+        points = random.ints( size, 0, 4000 ).toArray();
+        mask = new boolean[ size ];
+        multiMask = new int[ size ];
+        for ( int r = 0; r < 32; r++ ) {
+            int start = random.nextInt( 4000 );
+            ranges.add( IntegerRange.of( start, start + 200 ) );
+        }
+    }
+
+    @Benchmark
+    public boolean[] perPoint() {
+        for ( int i = 0; i < points.length; i++ ) {
+            mask[ i ] = range.contains( points[ i ] );
+        }
+        return mask;
+    }
+
+    @Benchmark
+    public boolean[] batchMask() {
+        RangeBatch.contains( range, points, mask );
+        return mask;
+    }
+
+    @Benchmark
+    public BitSet batchBitSet() {
+        return RangeBatch.contains( range, points );
+    }
+
+    @Benchmark
+    public int[] batchMultiRange() {
+        RangeBatch.containedIn( ranges, points, multiMask );
+        return multiMask;
+    }
+}
@@ -0,0 +1,188 @@
+package nl.fontys.sebivenlo.ranges.benchmark;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import nl.fontys.sebivenlo.ranges.Range;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures every default method of {@link Range} for one leaf class. Leaf
+ * specific subclasses only supply the points and the factory, in the same way
+ * the leaf tests extend RangeTestBase.
+ *
+ * @param <R> range type
+ * @param <P> demarcation type of range
+ * @param <D> unit of distance
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public abstract class RangeBenchmarkBase<R extends Range<R, P, D>, P extends Comparable<? super P>, D extends Comparable<? super D>> {
+
+    @Param
+    public Shape shape;
+
+    R first;
+    R second;
+    P point;
+
+    /**
+     * The points a,b,c,d,e and f, in that order.
+     *
+     * @return the points
+     */
+    abstract P[] points();
+
+    /**
+     * Create a range of the type under test.
+     *
+     * @param start of range
+     * @param end of range
+     * @return the range
+     */
+    abstract R createRange( P start, P end );
+
+    R createRange( String spec ) {
+        P[] p = points();
+        return createRange( p[ spec.charAt( 0 ) - 'a' ],
+                p[ spec.charAt( 1 ) - 'a' ] );
+    }
+
+    @Setup
+    public void setup() {
+        first = createRange( shape.first );
+        second = createRange( shape.second );
+        point = second.start();
+    }
+
+    @Benchmark
+    public boolean containsPoint() {
+        return first.contains( point );
+    }
+
+    @Benchmark
+    public boolean containsRange() {
+        return first.contains( second );
+    }
+
+    @Benchmark
+    public boolean overlaps() {
+        return first.overlaps( second );
+    }
+
+    /**
+     * The overlap test as the generic structures, like IntervalIndex and
+     * RangeSet, do it: through start() and end(). Compared with overlaps this
+     * shows the cost of the boundary accessors of a leaf class.
+     *
+     * @return true when the ranges overlap
+     */
+    @Benchmark
+    public boolean genericOverlaps() {
+        return Range.max( first.start(), second.start() )
+                .compareTo( Range.min( first.end(), second.end() ) ) < 0;
+    }
+
+    @Benchmark
+    public D overlap() {
+        return first.overlap( second );
+    }
+
+    @Benchmark
+    public D length() {
+        return first.length();
+    }
+
+    @Benchmark
+    public boolean meets() {
+        return first.meets( second );
+    }
+
+    @Benchmark
+    public boolean meetsOrOverlaps() {
+        return first.meetsOrOverlaps( second );
+    }
+
+    /**
+     * Includes the exception path for the disjoint shape.
+     *
+     * @return false when the check throws
+     */
+    @Benchmark
+    public boolean checkMeetsOrOverlaps() {
+        try {
+            first.checkMeetsOrOverlaps( second );
+            return true;
+        } catch ( IllegalArgumentException iae ) {
+            return false;
+        }
+    }
+
+    /**
+     * Includes the exception path for the disjoint shape.
+     *
+     * @return the join or null when the ranges cannot be joined
+     */
+    @Benchmark
+    public R joinWith() {
+        try {
+            return first.joinWith( second );
+        } catch ( IllegalArgumentException iae ) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    public Optional<R> intersectWith() {
+        return first.intersectWith( second );
+    }
+
+    @Benchmark
+    public void punchThrough( Blackhole bh ) {
+        first.punchThrough( second ).forEach( bh::consume );
+    }
+
+    @Benchmark
+    public int punchThroughSink( Blackhole bh ) {
+        return first.punchThrough( second, bh::consume );
+    }
+
+    @Benchmark
+    public int compareTo() {
+        return first.compareTo( second );
+    }
+
+    @Benchmark
+    public int rangeHashCode() {
+        return first.rangeHashCode();
+    }
+
+    @Benchmark
+    public boolean rangeEquals() {
+        return first.rangeEquals( second );
+    }
+
+    @Benchmark
+    public String rangeToString() {
+        return first.rangeToString();
+    }
+
+    @Benchmark
+    public R self() {
+        return first.self();
+    }
+}
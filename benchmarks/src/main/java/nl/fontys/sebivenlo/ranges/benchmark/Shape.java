@@ -0,0 +1,21 @@
+package nl.fontys.sebivenlo.ranges.benchmark;
+
+/**
+ * The relative positions of two ranges, as enumerated in RangeTestBase. The
+ * specs use the points a &le; b &le; c &le; d of the test data.
+ */
+public enum Shape {
+    DISJOINT( "ab", "cd" ),
+    MEETS( "ab", "bc" ),
+    OVERLAP( "ac", "bd" ),
+    CONTAINED( "ad", "bc" ),
+    EQUAL( "ab", "ab" );
+
+    final String first;
+    final String second;
+
+    Shape( String first, String second ) {
+        this.first = first;
+        this.second = second;
+    }
+}